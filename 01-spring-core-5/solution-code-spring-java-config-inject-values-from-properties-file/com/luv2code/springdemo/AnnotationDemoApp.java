@@ -18,6 +18,14 @@ public class AnnotationDemoApp {
 
 		// call method to get daily fortune
 		System.out.println(theCoach.getDailyFortune());
+		
+		// fortunes come from an in-memory snapshot, refreshed in the background
+		DatabaseFortuneService theFortuneService = 
+				context.getBean("databaseFortuneService", DatabaseFortuneService.class);
+		
+		System.out.println("fortunes: " + theFortuneService.getFortuneCount()
+							+ ", load time: " + theFortuneService.getLoadTimeMillis() + " ms"
+							+ ", snapshot age: " + theFortuneService.getSnapshotAgeMillis() + " ms");
 				
 		// close the context
 		context.close();	
@@ -0,0 +1,120 @@
+package com.luv2code.springdemo;
+
+// Stops calling a failing dependency for a while.
+//
+// CLOSED: calls go through, outcomes are kept for the last windowSize calls.
+// Once at least minimumCalls are in the window and the failure rate reaches failureRateThreshold,
+// the breaker OPENs and rejects calls for openMillis. Then it goes HALF_OPEN and lets a single
+// trial call through ... success closes it again, failure re-opens it.
+public class CircuitBreaker {
+
+	public enum State { CLOSED, OPEN, HALF_OPEN }
+	
+	private final int windowSize;
+	private final int minimumCalls;
+	private final double failureRateThreshold;
+	private final long openMillis;
+	
+	// ring of the last windowSize outcomes, true = failure
+	private final boolean[] outcomes;
+	private int position;
+	private int calls;
+	private int failures;
+	
+	private State state = State.CLOSED;
+	private long openedAt;
+	private boolean trialInFlight;
+	
+	public CircuitBreaker(int windowSize, int minimumCalls, double failureRateThreshold, long openMillis) {
+		this.windowSize = windowSize;
+		this.minimumCalls = minimumCalls;
+		this.failureRateThreshold = failureRateThreshold;
+		this.openMillis = openMillis;
+		this.outcomes = new boolean[windowSize];
+	}
+	
+	// true if the caller may make the call ... and must then report it with onSuccess/onFailure
+	public synchronized boolean tryAcquire() {
+		
+		if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+			state = State.HALF_OPEN;
+			trialInFlight = false;
+		}
+		
+		switch (state) {
+			case CLOSED:
+				return true;
+			case HALF_OPEN:
+				if (trialInFlight) {
+					return false;
+				}
+				trialInFlight = true;
+				return true;
+			default:
+				return false;
+		}
+	}
+	
+	public synchronized void onSuccess() {
+		
+		if (state == State.HALF_OPEN) {
+			reset(State.CLOSED);
+			return;
+		}
+		
+		record(false);
+	}
+	
+	public synchronized void onFailure() {
+		
+		if (state == State.HALF_OPEN) {
+			open();
+			return;
+		}
+		
+		record(true);
+		
+		if (calls >= minimumCalls && (double) failures / calls >= failureRateThreshold) {
+			open();
+		}
+	}
+	
+	public synchronized State getState() {
+		return state;
+	}
+	
+	private void record(boolean failure) {
+		
+		if (calls == windowSize) {
+			// drop the oldest outcome
+			if (outcomes[position]) {
+				failures--;
+			}
+		}
+		else {
+			calls++;
+		}
+		
+		outcomes[position] = failure;
+		
+		if (failure) {
+			failures++;
+		}
+		
+		position = (position + 1) % windowSize;
+	}
+	
+	private void open() {
+		reset(State.OPEN);
+		openedAt = System.currentTimeMillis();
+	}
+	
+	private void reset(State newState) {
+		state = newState;
+		calls = 0;
+		failures = 0;
+		position = 0;
+		trialInFlight = false;
+	}
+	
+}
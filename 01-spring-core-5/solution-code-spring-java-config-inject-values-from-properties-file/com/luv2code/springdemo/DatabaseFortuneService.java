@@ -1,14 +1,159 @@
 package com.luv2code.springdemo;
 
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
 public class DatabaseFortuneService implements FortuneService {
 
+	// used until the first successful load
+	private static final String[] NO_FORTUNES = { "Your fortune is on its way" };
+	
+	@Value("${fortune.db.url:jdbc:mysql://localhost:3306/fortunes?useSSL=false&serverTimezone=UTC}")
+	private String url;
+	
+	@Value("${fortune.db.user:springstudent}")
+	private String user;
+	
+	@Value("${fortune.db.password:springstudent}")
+	private String password;
+	
+	@Value("${fortune.db.query:select text from fortune}")
+	private String query;
+	
+	@Value("${fortune.refreshSeconds:300}")
+	private int refreshSeconds;
+	
+	// readers only ever see a complete array ... a refresh swaps in a new snapshot, it never changes one
+	private volatile Snapshot snapshot = new Snapshot(NO_FORTUNES, 0, 0);
+	
+	private ScheduledExecutorService refresher;
+	
+	// load once at startup, then refresh in the background
+	@PostConstruct
+	public void start() {
+		
+		refresh();
+		
+		// 0 or less means load once and keep those fortunes
+		if (refreshSeconds <= 0) {
+			return;
+		}
+		
+		refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "fortune-refresher");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		refresher.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+	}
+	
+	@PreDestroy
+	public void stop() {
+		if (refresher != null) {
+			refresher.shutdownNow();
+		}
+	}
+	
 	@Override
 	public String getFortune() {
-		// TODO Auto-generated method stub
-		return null;
+		
+		// no locks, no database ... just pick from the current snapshot
+		String[] fortunes = snapshot.fortunes;
+		
+		return fortunes[ThreadLocalRandom.current().nextInt(fortunes.length)];
 	}
-
+	
+	public int getFortuneCount() {
+		return snapshot.fortunes.length;
+	}
+	
+	// how long the last successful load took
+	public long getLoadTimeMillis() {
+		return snapshot.loadTimeMillis;
+	}
+	
+	// -1 if nothing has been loaded from the database yet
+	public long getSnapshotAgeMillis() {
+		
+		long loadedAt = snapshot.loadedAt;
+		
+		return (loadedAt == 0) ? -1 : System.currentTimeMillis() - loadedAt;
+	}
+	
+	private void refresh() {
+		
+		long start = System.currentTimeMillis();
+		
+		try {
+			String[] fortunes = load();
+			
+			if (fortunes.length == 0) {
+				System.out.println(">> DatabaseFortuneService: no fortunes found, keeping the current ones");
+				return;
+			}
+			
+			long end = System.currentTimeMillis();
+			
+			snapshot = new Snapshot(fortunes, end, end - start);
+		}
+		catch (SQLException | RuntimeException exc) {
+			// keep serving the last good snapshot ... and never let an exception escape,
+			// the scheduler would silently stop all further refreshes
+			System.out.println(">> DatabaseFortuneService: refresh failed, keeping the current fortunes: " + exc);
+		}
+	}
+	
+	private String[] load() throws SQLException {
+		
+		List<String> fortunes = new ArrayList<>();
+		
+		try (Connection myConn = DriverManager.getConnection(url, user, password);
+			 Statement myStmt = myConn.createStatement();
+			 ResultSet myRs = myStmt.executeQuery(query)) {
+			
+			while (myRs.next()) {
+				
+				String fortune = myRs.getString(1);
+				
+				// the column is nullable ... getFortune() must never hand out a null
+				if (fortune != null) {
+					fortunes.add(fortune);
+				}
+			}
+		}
+		
+		return fortunes.toArray(new String[0]);
+	}
+	
+	
+	private static class Snapshot {
+		
+		private final String[] fortunes;
+		private final long loadedAt;
+		private final long loadTimeMillis;
+		
+		Snapshot(String[] fortunes, long loadedAt, long loadTimeMillis) {
+			this.fortunes = fortunes;
+			this.loadedAt = loadedAt;
+			this.loadTimeMillis = loadTimeMillis;
+		}
+	}
+	
 }
@@ -0,0 +1,72 @@
+package com.luv2code.springdemo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.sun.net.httpserver.HttpServer;
+
+// tiny local fortune endpoint for trying out RESTFortuneService ... can be made slow or flaky
+public class FortuneStubServer {
+
+	private final HttpServer server;
+	
+	private volatile long latencyMillis;
+	private volatile double failureRate;
+	
+	public FortuneStubServer(int port) throws IOException {
+		
+		server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		
+		server.createContext("/fortune", exchange -> {
+			
+			try {
+				if (latencyMillis > 0) {
+					Thread.sleep(latencyMillis);
+				}
+				
+				boolean fail = ThreadLocalRandom.current().nextDouble() < failureRate;
+				
+				byte[] body = (fail ? "upstream error" : "Today is your lucky day!").getBytes(StandardCharsets.UTF_8);
+				
+				exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+				
+				try (OutputStream out = exchange.getResponseBody()) {
+					out.write(body);
+				}
+			}
+			catch (InterruptedException exc) {
+				Thread.currentThread().interrupt();
+			}
+			finally {
+				exchange.close();
+			}
+		});
+		
+		server.setExecutor(Executors.newCachedThreadPool());
+	}
+	
+	public void start() {
+		server.start();
+	}
+	
+	public void stop() {
+		server.stop(0);
+	}
+	
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+	
+	public void setLatencyMillis(long latencyMillis) {
+		this.latencyMillis = latencyMillis;
+	}
+
+	public void setFailureRate(double failureRate) {
+		this.failureRate = failureRate;
+	}
+	
+}
@@ -1,14 +1,299 @@
 package com.luv2code.springdemo;
 
-import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
-@Component
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.util.EntityUtils;
+import org.springframework.beans.factory.annotation.Value;
+
+// Gets fortunes from a remote HTTP endpoint without letting a slow upstream stall the caller:
+//
+//  - Apache HttpAsyncClient ... non-blocking I/O, idle keep-alive connections pooled and reused
+//  - every call has a deadline, getFortune() never waits longer than that
+//  - a circuit breaker stops calling the upstream while it keeps failing
+//  - on timeout, error or open circuit we answer with the last fortune we got (last-known-good)
+//
+// Runs on Java 8, needs httpasyncclient 4.1.x on the classpath (with httpcore-nio, httpclient,
+// httpcore and commons-logging) next to the Spring jars
+//
+// Not a @Component ... the other demos scan this package and would each start an I/O reactor for it.
+// Create it where it's used (see RESTFortuneServiceDemoApp), or declare it as a @Bean to get the
+// fortune.rest.* properties injected
 public class RESTFortuneService implements FortuneService {
 
+	// used when the upstream has never answered
+	private static final String DEFAULT_FORTUNE = "Your fortune is on its way";
+	
+	// same defaults whether it's created with new or as a bean
+	@Value("${fortune.rest.url:http://localhost:8089/fortune}")
+	private String url = "http://localhost:8089/fortune";
+	
+	@Value("${fortune.rest.connectTimeoutMillis:500}")
+	private long connectTimeoutMillis = 500;
+	
+	@Value("${fortune.rest.timeoutMillis:300}")
+	private long timeoutMillis = 300;
+	
+	@Value("${fortune.rest.maxConnections:20}")
+	private int maxConnections = 20;
+	
+	private CircuitBreaker circuitBreaker = new CircuitBreaker(20, 10, 0.5, 5000);
+	
+	private CloseableHttpAsyncClient client;
+	
+	private volatile String lastKnownGood;
+	
+	// metrics
+	private final LongAdder calls = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder deadlinesExceeded = new LongAdder();
+	private final LongAdder shortCircuited = new LongAdder();
+	private final LongAdder fallbacks = new LongAdder();
+	private final LongAdder latencyNanos = new LongAdder();
+	private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0);
+	
+	@PostConstruct
+	public void start() throws IOReactorException {
+		
+		// two I/O threads are plenty ... they never block, responses are handled as they arrive
+		IOReactorConfig reactorConfig = IOReactorConfig.custom()
+											.setIoThreadCount(2)
+											.setConnectTimeout((int) connectTimeoutMillis)
+											.build();
+		
+		// keeps idle keep-alive connections to the upstream and hands them out again
+		PoolingNHttpClientConnectionManager connectionManager =
+				new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+		
+		connectionManager.setMaxTotal(maxConnections);
+		connectionManager.setDefaultMaxPerRoute(maxConnections);
+		
+		// no waiting longer than the deadline for a pooled connection or for the upstream to answer
+		RequestConfig requestConfig = RequestConfig.custom()
+										.setConnectTimeout((int) connectTimeoutMillis)
+										.setConnectionRequestTimeout((int) timeoutMillis)
+										.setSocketTimeout((int) timeoutMillis)
+										.build();
+		
+		client = HttpAsyncClients.custom()
+						.setConnectionManager(connectionManager)
+						.setDefaultRequestConfig(requestConfig)
+						.build();
+		
+		client.start();
+	}
+	
+	@PreDestroy
+	public void stop() throws IOException {
+		if (client != null) {
+			client.close();
+		}
+	}
+	
+	public void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+		this.circuitBreaker = circuitBreaker;
+	}
+	
+	public void setUrl(String url) {
+		this.url = url;
+	}
+
+	public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+		this.connectTimeoutMillis = connectTimeoutMillis;
+	}
+
+	public void setTimeoutMillis(long timeoutMillis) {
+		this.timeoutMillis = timeoutMillis;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
 	@Override
 	public String getFortune() {
-		// TODO Auto-generated method stub
-		return null;
+		
+		String fortune;
+		
+		try {
+			fortune = callUpstream().get(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException exc) {
+			
+			// the request carries on in the background and still updates the breaker and last-known-good
+			deadlinesExceeded.increment();
+			fortune = null;
+		}
+		catch (InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			fortune = null;
+		}
+		catch (ExecutionException exc) {
+			fortune = null;
+		}
+		
+		return (fortune != null) ? fortune : fallback();
+	}
+	
+	// never completes exceptionally ... failures complete with the fallback fortune
+	public CompletableFuture<String> getFortuneAsync() {
+		return callUpstream().thenApply(fortune -> (fortune != null) ? fortune : fallback());
+	}
+	
+	// completes with the upstream's fortune, or null if there is none ... the caller picks the fallback,
+	// so a fallback is counted once per caller that actually got one, not again when an abandoned call fails
+	private CompletableFuture<String> callUpstream() {
+		
+		if (!circuitBreaker.tryAcquire()) {
+			shortCircuited.increment();
+			return CompletableFuture.completedFuture(null);
+		}
+		
+		calls.increment();
+		
+		HttpGet request = new HttpGet(url);
+		request.setHeader("Accept", "text/plain");
+		
+		CompletableFuture<String> result = new CompletableFuture<>();
+		
+		long start = System.nanoTime();
+		
+		// runs on an I/O thread ... only quick bookkeeping in here
+		client.execute(request, new FutureCallback<HttpResponse>() {
+			
+			@Override
+			public void completed(HttpResponse response) {
+				
+				String body;
+				
+				try {
+					body = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8).trim();
+				}
+				catch (IOException | RuntimeException exc) {
+					failed(exc);
+					return;
+				}
+				
+				if (response.getStatusLine().getStatusCode() != 200 || body.isEmpty()) {
+					failed(null);
+					return;
+				}
+				
+				record();
+				circuitBreaker.onSuccess();
+				
+				lastKnownGood = body;
+				
+				result.complete(body);
+			}
+			
+			@Override
+			public void failed(Exception exc) {
+				
+				record();
+				errors.increment();
+				
+				if (exc instanceof SocketTimeoutException || exc instanceof ConnectTimeoutException) {
+					timeouts.increment();
+				}
+				
+				circuitBreaker.onFailure();
+				
+				result.complete(null);
+			}
+			
+			@Override
+			public void cancelled() {
+				failed(null);
+			}
+			
+			private void record() {
+				long elapsed = System.nanoTime() - start;
+				latencyNanos.add(elapsed);
+				maxLatencyNanos.accumulate(elapsed);
+			}
+		});
+		
+		return result;
+	}
+	
+	private String fallback() {
+		
+		fallbacks.increment();
+		
+		String fortune = lastKnownGood;
+		
+		return (fortune != null) ? fortune : DEFAULT_FORTUNE;
+	}
+	
+	
+	// metrics
+	
+	public long getCalls() {
+		return calls.sum();
+	}
+
+	public long getErrors() {
+		return errors.sum();
+	}
+	
+	public double getErrorRate() {
+		long total = calls.sum();
+		return (total == 0) ? 0 : (double) errors.sum() / total;
+	}
+
+	// upstream requests that timed out
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+	
+	// getFortune() callers that gave up waiting and got the fallback
+	public long getDeadlinesExceeded() {
+		return deadlinesExceeded.sum();
+	}
+
+	public long getShortCircuited() {
+		return shortCircuited.sum();
 	}
 
+	// fortunes answered from last-known-good (or the default), once per caller
+	public long getFallbacks() {
+		return fallbacks.sum();
+	}
+	
+	public double getAverageLatencyMillis() {
+		long total = calls.sum();
+		return (total == 0) ? 0 : latencyNanos.sum() / 1e6 / total;
+	}
+	
+	public double getMaxLatencyMillis() {
+		return maxLatencyNanos.get() / 1e6;
+	}
+	
+	public CircuitBreaker.State getCircuitState() {
+		return circuitBreaker.getState();
+	}
+	
 }
@@ -0,0 +1,90 @@
+package com.luv2code.springdemo;
+
+// runs RESTFortuneService against a local stub server that is healthy, then slow, then failing
+public class RESTFortuneServiceDemoApp {
+
+	public static void main(String[] args) throws Exception {
+
+		FortuneStubServer stubServer = new FortuneStubServer(0);
+		stubServer.start();
+		
+		RESTFortuneService fortuneService = new RESTFortuneService();
+		fortuneService.setUrl("http://localhost:" + stubServer.getPort() + "/fortune");
+		fortuneService.setConnectTimeoutMillis(500);
+		fortuneService.setTimeoutMillis(200);
+		fortuneService.setCircuitBreaker(new CircuitBreaker(10, 5, 0.5, 1000));
+		fortuneService.start();
+		
+		try {
+			// healthy upstream
+			run("healthy", fortuneService, 20);
+			check(fortuneService.getErrors() == 0, "no errors while healthy");
+			
+			// upstream slower than our deadline ... callers still get an answer within ~200 ms
+			stubServer.setLatencyMillis(1000);
+			
+			long fallbacksBefore = fortuneService.getFallbacks();
+			
+			long start = System.currentTimeMillis();
+			String fortune = fortuneService.getFortune();
+			long waited = System.currentTimeMillis() - start;
+			
+			System.out.println("slow upstream answered with last-known-good \"" + fortune + "\" after " + waited + " ms");
+			check(waited < 500, "caller not held past the deadline");
+			check(fortune.equals("Today is your lucky day!"), "last-known-good fortune served");
+			
+			// let the abandoned request finish in the background ... it must not count a second fallback
+			Thread.sleep(1200);
+			check(fortuneService.getFallbacks() == fallbacksBefore + 1, "one fallback per caller");
+			
+			// failing upstream ... the breaker opens and we stop calling it
+			stubServer.setLatencyMillis(0);
+			stubServer.setFailureRate(1.0);
+			
+			run("failing", fortuneService, 20);
+			check(fortuneService.getCircuitState() == CircuitBreaker.State.OPEN, "circuit open");
+			check(fortuneService.getShortCircuited() > 0, "calls short-circuited");
+			
+			// upstream recovers ... after the open period one trial call closes the breaker
+			stubServer.setFailureRate(0);
+			Thread.sleep(1100);
+			
+			run("recovered", fortuneService, 5);
+			check(fortuneService.getCircuitState() == CircuitBreaker.State.CLOSED, "circuit closed again");
+			
+			System.out.println("\nAll checks passed");
+		}
+		finally {
+			fortuneService.stop();
+			stubServer.stop();
+		}
+	}
+	
+	private static void run(String phase, RESTFortuneService fortuneService, int count) {
+		
+		for (int i = 0; i < count; i++) {
+			fortuneService.getFortune();
+		}
+		
+		System.out.println(phase + ": calls=" + fortuneService.getCalls()
+							+ " errors=" + fortuneService.getErrors()
+							+ String.format(" errorRate=%.2f", fortuneService.getErrorRate())
+							+ " timeouts=" + fortuneService.getTimeouts()
+							+ " deadlinesExceeded=" + fortuneService.getDeadlinesExceeded()
+							+ " shortCircuited=" + fortuneService.getShortCircuited()
+							+ " fallbacks=" + fortuneService.getFallbacks()
+							+ String.format(" avgLatency=%.1fms maxLatency=%.1fms", 
+											fortuneService.getAverageLatencyMillis(), fortuneService.getMaxLatencyMillis())
+							+ " circuit=" + fortuneService.getCircuitState());
+	}
+	
+	private static void check(boolean condition, String description) {
+		
+		if (!condition) {
+			throw new AssertionError("Check failed: " + description);
+		}
+		
+		System.out.println("ok: " + description);
+	}
+
+}
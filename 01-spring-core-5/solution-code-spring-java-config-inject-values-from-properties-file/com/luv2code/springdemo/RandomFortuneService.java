@@ -1,6 +1,6 @@
 package com.luv2code.springdemo;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.springframework.stereotype.Component;
 
@@ -14,13 +14,10 @@ public class RandomFortuneService implements FortuneService {
 			"The journey is the reward"
 	};
 	
-	// create a random number generator
-	private Random myRandom = new Random();
-		
 	@Override
 	public String getFortune() {
-		// pick a random string from the array
-		int index = myRandom.nextInt(data.length);
+		// pick a random string from the array ... ThreadLocalRandom, so threads don't contend on one Random
+		int index = ThreadLocalRandom.current().nextInt(data.length);
 		
 		String theFortune = data[index];
 		
@@ -0,0 +1,24 @@
+CREATE DATABASE  IF NOT EXISTS `fortunes`;
+USE `fortunes`;
+
+--
+-- Table structure for table `fortune`
+--
+
+DROP TABLE IF EXISTS `fortune`;
+
+CREATE TABLE `fortune` (
+  `id` int(11) NOT NULL AUTO_INCREMENT,
+  `text` varchar(255) DEFAULT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB AUTO_INCREMENT=1 DEFAULT CHARSET=latin1;
+
+--
+-- Data for table `fortune`
+--
+
+INSERT INTO `fortune` (`text`) VALUES 
+	('Beware of the wolf in sheep''s clothing'),
+	('Diligence is the mother of good luck'),
+	('The journey is the reward'),
+	('Today is your lucky day!');
@@ -0,0 +1,79 @@
+package com.luv2code.hibernate.demo;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+
+import com.luv2code.hibernate.demo.dao.CourseDAO;
+import com.luv2code.hibernate.demo.dao.FetchPlan;
+import com.luv2code.hibernate.demo.dao.InstructorDAO;
+import com.luv2code.hibernate.demo.entity.Course;
+import com.luv2code.hibernate.demo.entity.Instructor;
+import com.luv2code.hibernate.demo.entity.InstructorDetail;
+import com.luv2code.hibernate.demo.entity.Review;
+import com.luv2code.hibernate.demo.entity.Student;
+
+public class FetchPlanDemo {
+
+	public static void main(String[] args) {
+
+		// create session factory
+		SessionFactory factory = new Configuration()
+								.configure("hibernate.cfg.xml")
+								.addAnnotatedClass(Instructor.class)
+								.addAnnotatedClass(InstructorDetail.class)
+								.addAnnotatedClass(Course.class)
+								.addAnnotatedClass(Review.class)
+								.addAnnotatedClass(Student.class)
+								.buildSessionFactory();
+		
+		CourseDAO courseDAO = new CourseDAO(factory);
+		InstructorDAO instructorDAO = new InstructorDAO(factory);
+		
+		// create session
+		Session session = factory.getCurrentSession();
+		
+		try {			
+			
+			// start a transaction
+			session.beginTransaction();
+			
+			// all courses with their reviews and students ... 2 SELECTs for the courses and both collections,
+			// plus the eager Course.instructor and Instructor.instructorDetail, which Hibernate still loads
+			// with batched SELECTs (up to 50 ids each, see hibernate.default_batch_fetch_size)
+			List<Course> theCourses = courseDAO.findAll(FetchPlan.COURSE_WITH_REVIEWS_AND_STUDENTS);
+			
+			for (Course tempCourse : theCourses) {
+				System.out.println("\nCourse: " + tempCourse);
+				System.out.println("Reviews: " + tempCourse.getReviews());
+				System.out.println("Students: " + tempCourse.getStudents());
+			}
+			
+			// one instructor with courses in a single SELECT ... same as FetchJoinDemo's JOIN FETCH
+			int theId = 1;
+			Instructor tempInstructor = instructorDAO.findById(theId, FetchPlan.INSTRUCTOR_WITH_COURSES);
+			
+			System.out.println("\nInstructor: " + tempInstructor);
+			
+			// commit transaction
+			session.getTransaction().commit();
+			
+			// courses were fetched up front, so this works with the session closed
+			if (tempInstructor != null) {
+				System.out.println("Courses: " + tempInstructor.getCourses());
+			}
+			
+			System.out.println("Done!");
+		}
+		finally {
+			
+			// add clean up code
+			session.close();
+			
+			factory.close();
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.luv2code.hibernate.demo.dao;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+
+import com.luv2code.hibernate.demo.entity.Course;
+
+// call inside a transaction on the factory's current session
+public class CourseDAO {
+
+	private SessionFactory factory;
+	
+	public CourseDAO(SessionFactory factory) {
+		this.factory = factory;
+	}
+	
+	public List<Course> findAll(FetchPlan<Course> plan) {
+		
+		Session session = factory.getCurrentSession();
+		
+		Query<Course> query = 
+				session.createQuery("select distinct c from Course c order by c.id", Course.class);
+		
+		return plan.list(session, query);
+	}
+	
+	public Course findById(int theId, FetchPlan<Course> plan) {
+		
+		Session session = factory.getCurrentSession();
+		
+		Query<Course> query = 
+				session.createQuery("select distinct c from Course c where c.id=:theCourseId", Course.class);
+		
+		query.setParameter("theCourseId", theId);
+		
+		List<Course> results = plan.list(session, query);
+		
+		return results.isEmpty() ? null : results.get(0);
+	}
+	
+}
@@ -0,0 +1,86 @@
+package com.luv2code.hibernate.demo.dao;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+
+import com.luv2code.hibernate.demo.entity.Course;
+import com.luv2code.hibernate.demo.entity.Instructor;
+import com.luv2code.hibernate.demo.entity.Student;
+
+/**
+ * Named fetch plans a DAO caller can pick per query, built on the entities' @NamedEntityGraph annotations.
+ *
+ * Each plan is typed by its root entity, so CourseDAO only accepts FetchPlan<Course> and handing it
+ * an instructor plan doesn't compile.
+ *
+ * Hibernate can only join fetch one List (bag) per query, so a plan's graph is join fetched
+ * and any further collections are loaded afterwards through their getters, in one extra SELECT each
+ * (the collections use SUBSELECT fetching, so initializing one loads them for every row of the query).
+ */
+public final class FetchPlan<T> {
+
+	// nothing fetched up front ... lazy collections fall back to batch / subselect fetching
+	private static final FetchPlan<Object> LAZY = new FetchPlan<>(null);
+	
+	public static final FetchPlan<Instructor> INSTRUCTOR_WITH_COURSES = new FetchPlan<>("Instructor.courses");
+	
+	public static final FetchPlan<Course> COURSE_WITH_REVIEWS = new FetchPlan<>("Course.reviews");
+	
+	public static final FetchPlan<Course> COURSE_WITH_REVIEWS_AND_STUDENTS =
+			new FetchPlan<>("Course.reviews", Course::getStudents);
+	
+	public static final FetchPlan<Student> STUDENT_WITH_COURSES = new FetchPlan<>("Student.courses");
+	
+	private static final String FETCH_GRAPH_HINT = "javax.persistence.fetchgraph";
+	
+	private final String graphName;
+	
+	private final List<Function<T, ?>> alsoLoad;
+	
+	@SafeVarargs
+	private FetchPlan(String graphName, Function<T, ?>... alsoLoad) {
+		this.graphName = graphName;
+		this.alsoLoad = Arrays.asList(alsoLoad);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public static <T> FetchPlan<T> lazy() {
+		
+		// fetches nothing, so it's the same plan for every entity
+		return (FetchPlan<T>) LAZY;
+	}
+	
+	public List<T> list(Session session, Query<T> query) {
+		
+		if (graphName == null) {
+			return query.getResultList();
+		}
+		
+		// join fetch the graph with the query itself
+		query.setHint(FETCH_GRAPH_HINT, session.getEntityGraph(graphName));
+		
+		// the join repeats the root row per child ... the query should say "select distinct",
+		// this keeps that distinct in memory instead of sending it to the database
+		query.setHint("hibernate.query.passDistinctThrough", false);
+		
+		List<T> results = query.getResultList();
+		
+		// then load the remaining collections for all results
+		for (Function<T, ?> getter : alsoLoad) {
+			
+			// subselect fetching loads this collection for every result on the first call,
+			// the rest are already initialized and cost nothing
+			for (T result : results) {
+				Hibernate.initialize(getter.apply(result));
+			}
+		}
+		
+		return results;
+	}
+
+}
@@ -0,0 +1,44 @@
+package com.luv2code.hibernate.demo.dao;
+
+import java.util.List;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.query.Query;
+
+import com.luv2code.hibernate.demo.entity.Instructor;
+
+// call inside a transaction on the factory's current session
+public class InstructorDAO {
+
+	private SessionFactory factory;
+	
+	public InstructorDAO(SessionFactory factory) {
+		this.factory = factory;
+	}
+	
+	public List<Instructor> findAll(FetchPlan<Instructor> plan) {
+		
+		Session session = factory.getCurrentSession();
+		
+		Query<Instructor> query = 
+				session.createQuery("select distinct i from Instructor i order by i.id", Instructor.class);
+		
+		return plan.list(session, query);
+	}
+	
+	public Instructor findById(int theId, FetchPlan<Instructor> plan) {
+		
+		Session session = factory.getCurrentSession();
+		
+		Query<Instructor> query = 
+				session.createQuery("select distinct i from Instructor i where i.id=:theInstructorId", Instructor.class);
+		
+		query.setParameter("theInstructorId", theId);
+		
+		List<Instructor> results = plan.list(session, query);
+		
+		return results.isEmpty() ? null : results.get(0);
+	}
+	
+}
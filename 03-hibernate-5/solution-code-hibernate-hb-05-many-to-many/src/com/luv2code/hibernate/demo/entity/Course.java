@@ -14,11 +14,21 @@ import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Fetch;
+import org.hibernate.annotations.FetchMode;
+
 @Entity
 @Table(name="course")
+@NamedEntityGraphs({
+	@NamedEntityGraph(name="Course.reviews", attributeNodes=@NamedAttributeNode("reviews")),
+	@NamedEntityGraph(name="Course.students", attributeNodes=@NamedAttributeNode("students"))
+})
 public class Course {
 
 	// define our fields
@@ -44,8 +54,12 @@ public class Course {
 	@JoinColumn(name="instructor_id")
 	private Instructor instructor;
 	
+	// SUBSELECT: touching one course's reviews loads the reviews of every course 
+	// that came back from the same query, in one statement
+	
 	@OneToMany(fetch=FetchType.LAZY, cascade=CascadeType.ALL)
 	@JoinColumn(name="course_id")
+	@Fetch(FetchMode.SUBSELECT)
 	private List<Review> reviews;
 		
 	@ManyToMany(fetch=FetchType.LAZY,
@@ -56,6 +70,7 @@ public class Course {
 			joinColumns=@JoinColumn(name="course_id"),
 			inverseJoinColumns=@JoinColumn(name="student_id")
 			)
+	@Fetch(FetchMode.SUBSELECT)
 	private List<Student> students;
 	
 	
@@ -11,12 +11,15 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.JoinColumn;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 
 @Entity
 @Table(name="instructor")
+@NamedEntityGraph(name="Instructor.courses", attributeNodes=@NamedAttributeNode("courses"))
 public class Instructor {
 
 	// annotate the class as an entity and map to db table
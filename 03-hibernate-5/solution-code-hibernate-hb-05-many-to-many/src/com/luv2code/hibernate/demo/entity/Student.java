@@ -12,10 +12,13 @@ import javax.persistence.Id;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
 import javax.persistence.Table;
 
 @Entity
 @Table(name="student")
+@NamedEntityGraph(name="Student.courses", attributeNodes=@NamedAttributeNode("courses"))
 public class Student {
 
 	@Id
@@ -8,6 +8,7 @@ import org.hibernate.query.Query;
 import com.luv2code.hibernate.demo.entity.Course;
 import com.luv2code.hibernate.demo.entity.Instructor;
 import com.luv2code.hibernate.demo.entity.InstructorDetail;
+import com.luv2code.hibernate.demo.querycount.QueryCount;
 
 public class FetchJoinDemo {
 
@@ -44,7 +45,8 @@ public class FetchJoinDemo {
 			query.setParameter("theInstructorId", theId);
 			
 			// execute query and get instructor
-			Instructor tempInstructor = query.getSingleResult();
+			// 2 statements: instructor join course, then the eager instructor_detail ... HQL doesn't join eager associations
+			Instructor tempInstructor = QueryCount.expect(2, () -> query.getSingleResult());
 			
 			System.out.println("luv2code: Instructor: " + tempInstructor);	
 			
@@ -57,7 +59,8 @@ public class FetchJoinDemo {
 			System.out.println("\nluv2code: The session is now closed!\n");
 			
 			// get courses for the instructor
-			System.out.println("luv2code: Courses: " + tempInstructor.getCourses());
+			// 0 statements: already fetched by the join
+			QueryCount.expect(0, () -> System.out.println("luv2code: Courses: " + tempInstructor.getCourses()));
 			
 			System.out.println("luv2code: Done!");
 		}
@@ -7,6 +7,7 @@ import org.hibernate.cfg.Configuration;
 import com.luv2code.hibernate.demo.entity.Course;
 import com.luv2code.hibernate.demo.entity.Instructor;
 import com.luv2code.hibernate.demo.entity.InstructorDetail;
+import com.luv2code.hibernate.demo.querycount.QueryCount;
 
 public class GetInstructorCoursesDemo {
 
@@ -29,13 +30,15 @@ public class GetInstructorCoursesDemo {
 			session.beginTransaction();
 			
 			// get the instructor from db
+			// 1 statement: instructor left join instructor_detail
 			int theId = 1;
-			Instructor tempInstructor = session.get(Instructor.class, theId);		
+			Instructor tempInstructor = QueryCount.expect(1, () -> session.get(Instructor.class, theId));		
 			
 			System.out.println("Instructor: " + tempInstructor);
 			
 			// get courses for the instructor
-			System.out.println("Courses: " + tempInstructor.getCourses());
+			// 1 statement: the lazy courses collection
+			QueryCount.expect(1, () -> System.out.println("Courses: " + tempInstructor.getCourses()));
 			
 			// commit transaction
 			session.getTransaction().commit();
@@ -0,0 +1,84 @@
+package com.luv2code.hibernate.demo.querycount;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.logging.Logger;
+
+import org.hibernate.HibernateException;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+
+/**
+ * Watches lazy collections being loaded. When the same association (say Instructor.courses)
+ * gets loaded for one owner after another in the same session, that's the N+1 pattern ...
+ * one SELECT for the parents, then one more per parent.
+ * 
+ * Logs a warning with the association path and the calling code the first time a session
+ * crosses the threshold (system property querycount.nplusone.threshold, default 3).
+ */
+public class NPlusOneDetector implements InitializeCollectionEventListener {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int THRESHOLD = Integer.getInteger("querycount.nplusone.threshold", 3);
+	
+	private Logger logger = Logger.getLogger(getClass().getName());
+	
+	// session -> association path -> loads so far
+	private final Map<SessionImplementor, Map<String, Integer>> loadsBySession = new WeakHashMap<>();
+	
+	@Override
+	public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+		
+		// we run ahead of Hibernate's own listener ... only count collections it's about to load
+		if (event.getCollection().wasInitialized()) {
+			return;
+		}
+		
+		String path = associationPath(event.getCollection().getRole());
+		
+		QueryCount.collectionLoaded(path);
+		
+		int loads;
+		
+		synchronized (loadsBySession) {
+			loads = loadsBySession.computeIfAbsent(event.getSession(), session -> new HashMap<>())
+								  .merge(path, 1, Integer::sum);
+		}
+		
+		if (loads == THRESHOLD) {
+			logger.warning("Possible N+1 select: " + path + " has been lazily loaded " + loads 
+							+ " times in one session, one owner at a time, at " + caller()
+							+ " ... use JOIN FETCH, an entity graph or @BatchSize");
+		}
+	}
+
+	// com.luv2code.hibernate.demo.entity.Instructor.courses -> Instructor.courses
+	private static String associationPath(String role) {
+		
+		int property = role.lastIndexOf('.');
+		int entity = role.lastIndexOf('.', property - 1);
+		
+		return role.substring(entity + 1);
+	}
+	
+	// first frame outside Hibernate and this package ... the code that touched the collection
+	private static String caller() {
+		
+		for (StackTraceElement frame : new Throwable().getStackTrace()) {
+			
+			String className = frame.getClassName();
+			
+			if (!className.startsWith("org.hibernate.") 
+					&& !className.startsWith(NPlusOneDetector.class.getPackage().getName())
+					&& !className.startsWith("java.")) {
+				return frame.toString();
+			}
+		}
+		
+		return "unknown";
+	}
+	
+}
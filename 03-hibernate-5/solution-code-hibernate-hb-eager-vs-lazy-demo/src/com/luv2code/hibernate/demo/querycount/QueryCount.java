@@ -0,0 +1,131 @@
+package com.luv2code.hibernate.demo.querycount;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Counts the SQL statements Hibernate runs on the current thread, so a block of code
+ * can be pinned to an exact number of queries:
+ * 
+ *	Instructor tempInstructor = QueryCount.expect(1, () -> session.get(Instructor.class, theId));
+ *
+ * Needs QueryCountInspector set as hibernate.session_factory.statement_inspector (see hibernate.cfg.xml).
+ */
+public class QueryCount {
+
+	private static final ThreadLocal<Recording> current = new ThreadLocal<>();
+	
+	private QueryCount() {
+	}
+
+	// runs the block and fails if it didn't issue exactly expectedStatements statements
+	public static <T> T expect(int expectedStatements, Supplier<T> block) {
+		
+		Recording recording = new Recording();
+		
+		T result = record(recording, block);
+		
+		if (recording.statements.size() != expectedStatements) {
+			throw new AssertionError("Expected " + expectedStatements + " SQL statement(s) but got " 
+										+ recording.statements.size() + recording.describe());
+		}
+		
+		return result;
+	}
+	
+	public static void expect(int expectedStatements, Runnable block) {
+		expect(expectedStatements, () -> {
+			block.run();
+			return null;
+		});
+	}
+	
+	// runs the block and returns what it did, for callers that want to check more than the count
+	public static Recording run(Runnable block) {
+		
+		Recording recording = new Recording();
+		
+		record(recording, () -> {
+			block.run();
+			return null;
+		});
+		
+		return recording;
+	}
+	
+	private static <T> T record(Recording recording, Supplier<T> block) {
+		
+		// allow nesting ... the outer recording sees everything the inner one does
+		Recording outer = current.get();
+		recording.parent = outer;
+		
+		current.set(recording);
+		
+		try {
+			return block.get();
+		}
+		finally {
+			if (outer != null) {
+				current.set(outer);
+			}
+			else {
+				current.remove();
+			}
+		}
+	}
+	
+	// called by QueryCountInspector
+	static void statementPrepared(String sql) {
+		for (Recording recording = current.get(); recording != null; recording = recording.parent) {
+			recording.statements.add(sql);
+		}
+	}
+	
+	// called by NPlusOneDetector
+	static void collectionLoaded(String role) {
+		for (Recording recording = current.get(); recording != null; recording = recording.parent) {
+			recording.collectionLoads.merge(role, 1, Integer::sum);
+		}
+	}
+	
+	
+	public static class Recording {
+		
+		private final List<String> statements = new ArrayList<>();
+		private final Map<String, Integer> collectionLoads = new LinkedHashMap<>();
+		private Recording parent;
+		
+		public int getStatementCount() {
+			return statements.size();
+		}
+		
+		public List<String> getStatements() {
+			return Collections.unmodifiableList(statements);
+		}
+		
+		// association path (Instructor.courses) -> number of times it was lazily loaded
+		public Map<String, Integer> getCollectionLoads() {
+			return Collections.unmodifiableMap(collectionLoads);
+		}
+		
+		private String describe() {
+			
+			StringBuilder result = new StringBuilder();
+			
+			for (int i = 0; i < statements.size(); i++) {
+				result.append("\n  ").append(i + 1).append(": ").append(statements.get(i));
+			}
+			
+			if (!collectionLoads.isEmpty()) {
+				result.append("\n  lazy collection loads: ").append(collectionLoads);
+			}
+			
+			return result.toString();
+		}
+	}
+	
+}
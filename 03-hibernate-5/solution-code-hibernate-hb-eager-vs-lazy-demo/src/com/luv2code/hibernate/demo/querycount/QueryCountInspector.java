@@ -0,0 +1,18 @@
+package com.luv2code.hibernate.demo.querycount;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// sees every SQL string before Hibernate prepares it ... counts it and passes it through untouched
+public class QueryCountInspector implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	public String inspect(String sql) {
+		
+		QueryCount.statementPrepared(sql);
+		
+		return sql;
+	}
+
+}
@@ -0,0 +1,27 @@
+package com.luv2code.hibernate.demo.querycount;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+// registers NPlusOneDetector ... picked up from META-INF/services/org.hibernate.integrator.spi.Integrator
+public class QueryCountIntegrator implements Integrator {
+
+	@Override
+	public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+			SessionFactoryServiceRegistry serviceRegistry) {
+		
+		EventListenerRegistry listeners = serviceRegistry.getService(EventListenerRegistry.class);
+		
+		// prepend so we see the collection before Hibernate's default listener loads it
+		listeners.prependListeners(EventType.INIT_COLLECTION, new NPlusOneDetector());
+	}
+
+	@Override
+	public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+	}
+
+}
@@ -2,6 +2,8 @@ package com.luv2code.aopdemo;
 
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import com.luv2code.aopdemo.metrics.MethodTimingRegistry;
+import com.luv2code.aopdemo.resilience.ResilienceRegistry;
 import com.luv2code.aopdemo.service.TrafficFortuneService;
 
 public class AroundDemoApp {
@@ -24,6 +26,16 @@ public class AroundDemoApp {
 		
 		System.out.println("\nMy fortune is: " + data);
 		
+		// display the recorded timings
+		MethodTimingRegistry theTimingRegistry = context.getBean(MethodTimingRegistry.class);
+		
+		System.out.println("\nTimings: " + theTimingRegistry.getTimings());
+		
+		// display the timeout / hedge / fallback counts
+		ResilienceRegistry theResilienceRegistry = context.getBean(ResilienceRegistry.class);
+		
+		System.out.println("Resilience: " + theResilienceRegistry.getCounts());
+		
 		System.out.println("Finished");
 		
 		// close the context
@@ -3,9 +3,11 @@ package com.luv2code.aopdemo;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.EnableMBeanExport;
 
 @Configuration
 @EnableAspectJAutoProxy
+@EnableMBeanExport
 @ComponentScan("com.luv2code.aopdemo")
 public class DemoConfig {
 
@@ -0,0 +1,46 @@
+package com.luv2code.aopdemo.aspect;
+
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.luv2code.aopdemo.metrics.MethodTimingRegistry;
+
+@Aspect
+@Component
+// runs just outside ResilienceAspect so the other aspects' printing isn't counted in the duration,
+// and a @Resilient method's time is what the caller actually waited
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class MethodTimingAspect {
+
+	@Autowired
+	private MethodTimingRegistry timingRegistry;
+	
+	// any method annotated with @Timed ... or any method of a class annotated with @Timed
+	@Around("@annotation(com.luv2code.aopdemo.metrics.Timed) "
+			+ "|| @within(com.luv2code.aopdemo.metrics.Timed)")
+	public Object timeMethod(ProceedingJoinPoint theProceedingJoinPoint) throws Throwable {
+		
+		long begin = System.nanoTime();
+		
+		try {
+			return theProceedingJoinPoint.proceed();
+		}
+		finally {
+			
+			long duration = System.nanoTime() - begin;
+			
+			Method theMethod = ((MethodSignature) theProceedingJoinPoint.getSignature()).getMethod();
+			
+			timingRegistry.record(theMethod, duration);
+		}
+	}
+	
+}
@@ -29,19 +29,9 @@ public class MyDemoLoggingAspect {
 		String method = theProceedingJoinPoint.getSignature().toShortString();
 		System.out.println("\n=====>>> Executing @Around on method: " + method);
 		
-		// get begin timestamp
-		long begin = System.currentTimeMillis();
-		
-		// now, let's execute the method
+		// now, let's execute the method ... MethodTimingAspect records the duration
 		Object result = theProceedingJoinPoint.proceed();
 		
-		// get end timestamp
-		long end = System.currentTimeMillis();
-		
-		// compute duration and display it
-		long duration = end - begin;
-		System.out.println("\n=====> Duration: " + duration / 1000.0 + " seconds");
-		
 		return result;
 	}
 	
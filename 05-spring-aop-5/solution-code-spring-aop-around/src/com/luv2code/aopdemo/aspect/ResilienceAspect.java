@@ -0,0 +1,205 @@
+package com.luv2code.aopdemo.aspect;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.luv2code.aopdemo.resilience.ResilienceRegistry;
+import com.luv2code.aopdemo.resilience.ResilienceTimeoutException;
+import com.luv2code.aopdemo.resilience.Resilient;
+
+@Aspect
+@Component
+// innermost ... only the target method itself moves to the pool threads,
+// the other aspects keep running on the caller's thread
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class ResilienceAspect {
+
+	private static final int POOL_SIZE = 8;
+	private static final int QUEUE_SIZE = 64;
+	
+	// method + argument combinations we keep a last good result for
+	private static final int MAX_LAST_RESULTS = 1000;
+	
+	@Autowired
+	private ResilienceRegistry resilienceRegistry;
+	
+	// bounded both ways ... when it's full callers get the fallback instead of piling up
+	private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+			POOL_SIZE, POOL_SIZE, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE), new DaemonThreadFactory());
+	
+	// last good result per method + arguments ... LRU, so callers passing ever new arguments
+	// push out the least recently used results instead of growing it forever
+	private final Map<List<Object>, Object> lastResults = Collections.synchronizedMap(
+			new LinkedHashMap<List<Object>, Object>(16, 0.75f, true) {
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<List<Object>, Object> eldest) {
+					return size() > MAX_LAST_RESULTS;
+				}
+			});
+	
+	public ResilienceAspect() {
+		executor.allowCoreThreadTimeOut(true);
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+	
+	@Around("@annotation(theResilient)")
+	public Object runResiliently(ProceedingJoinPoint theProceedingJoinPoint, Resilient theResilient) throws Throwable {
+		
+		Method theMethod = ((MethodSignature) theProceedingJoinPoint.getSignature()).getMethod();
+		String methodName = theMethod.getDeclaringClass().getSimpleName() + "." + theMethod.getName();
+		
+		ResilienceRegistry.Counters counters = resilienceRegistry.forMethod(methodName);
+		counters.call();
+		
+		List<Object> cacheKey = new ArrayList<>();
+		cacheKey.add(theMethod);
+		cacheKey.addAll(Arrays.asList(theProceedingJoinPoint.getArgs()));
+		
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(theResilient.timeoutMillis());
+		
+		// whichever attempt finishes first completes this
+		CompletableFuture<Object> result = new CompletableFuture<>();
+		List<Future<?>> attempts = new ArrayList<>(2);
+		
+		try {
+			attempts.add(submit(theProceedingJoinPoint, result, false, counters));
+		}
+		catch (RejectedExecutionException exc) {
+			counters.rejected();
+			return fallback(theMethod, methodName, theResilient, cacheKey, counters);
+		}
+		
+		try {
+			
+			long hedgeAfter = theResilient.hedgeAfterMillis();
+			
+			if (hedgeAfter > 0 && hedgeAfter < theResilient.timeoutMillis()) {
+				
+				try {
+					return remember(cacheKey, result.get(hedgeAfter, TimeUnit.MILLISECONDS));
+				}
+				catch (TimeoutException exc) {
+					
+					// first attempt is slow ... race a second one against it
+					counters.hedge();
+					
+					try {
+						attempts.add(submit(theProceedingJoinPoint, result, true, counters));
+					}
+					catch (RejectedExecutionException rejected) {
+						counters.rejected();
+					}
+				}
+			}
+			
+			long remaining = Math.max(0, deadline - System.nanoTime());
+			
+			return remember(cacheKey, result.get(remaining, TimeUnit.NANOSECONDS));
+		}
+		catch (TimeoutException exc) {
+			counters.timeout();
+			return fallback(theMethod, methodName, theResilient, cacheKey, counters);
+		}
+		catch (ExecutionException exc) {
+			// the method itself threw ... pass that on unchanged
+			throw exc.getCause();
+		}
+		finally {
+			// stop any attempt still running so it gives its thread back
+			for (Future<?> attempt : attempts) {
+				attempt.cancel(true);
+			}
+		}
+	}
+	
+	private Future<?> submit(ProceedingJoinPoint theProceedingJoinPoint, CompletableFuture<Object> result, 
+								boolean hedge, ResilienceRegistry.Counters counters) {
+		
+		return executor.submit(() -> {
+			
+			try {
+				// each proceed() works on its own copy of the invocation, so running it twice is fine
+				Object value = theProceedingJoinPoint.proceed();
+				
+				if (result.complete(value) && hedge) {
+					counters.hedgeWin();
+				}
+			}
+			catch (Throwable exc) {
+				result.completeExceptionally(exc);
+			}
+		});
+	}
+	
+	private Object remember(List<Object> cacheKey, Object value) {
+		
+		if (value != null) {
+			lastResults.put(cacheKey, value);
+		}
+		
+		return value;
+	}
+	
+	private Object fallback(Method theMethod, String methodName, Resilient theResilient, 
+							List<Object> cacheKey, ResilienceRegistry.Counters counters) {
+		
+		Object cached = lastResults.get(cacheKey);
+		
+		if (cached != null) {
+			counters.fallback();
+			return cached;
+		}
+		
+		if (theMethod.getReturnType() == String.class && !theResilient.fallback().isEmpty()) {
+			counters.fallback();
+			return theResilient.fallback();
+		}
+		
+		throw new ResilienceTimeoutException(methodName + " did not answer within " + theResilient.timeoutMillis() + " ms");
+	}
+	
+	
+	private static class DaemonThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "resilient-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
+}
@@ -6,6 +6,7 @@ import java.util.List;
 import org.springframework.stereotype.Component;
 
 import com.luv2code.aopdemo.Account;
+import com.luv2code.aopdemo.metrics.Timed;
 
 @Component
 public class AccountDAO {
@@ -15,6 +16,7 @@ public class AccountDAO {
 			
 	// add a new method: findAccounts()
 	
+	@Timed
 	public List<Account> findAccounts(boolean tripWire) {
 		
 		// for academic purpose ... simulate an exception
@@ -40,12 +42,14 @@ public class AccountDAO {
 	
 	
 	
+	@Timed
 	public void addAccount(Account theAccount, boolean vipFlag) {
 		
 		System.out.println(getClass() + ": DOING MY DB WORK: ADDING AN ACCOUNT");
 		
 	}
 	
+	@Timed
 	public boolean doWork() {
 		
 		System.out.println(getClass() + ": doWork()");
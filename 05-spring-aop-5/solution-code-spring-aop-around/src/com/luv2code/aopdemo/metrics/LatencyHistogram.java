@@ -0,0 +1,132 @@
+package com.luv2code.aopdemo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// log-linear histogram of nanosecond durations, in the style of HdrHistogram
+//
+// every power of two is split into 16 sub-buckets so any recorded value is off by at most ~6%.
+// Counts are striped by thread so concurrent callers rarely touch the same cache line.
+public class LatencyHistogram {
+
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+	private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+	
+	// enough buckets for any positive long
+	private static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (63 - SUB_BUCKET_BITS) * SUB_BUCKET_HALF;
+	
+	private static final int STRIPE_COUNT = 
+			Integer.highestOneBit(Math.min(16, Runtime.getRuntime().availableProcessors()) * 2 - 1);
+	
+	private final AtomicLongArray counts = new AtomicLongArray(STRIPE_COUNT * BUCKET_COUNT);
+	
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+	
+	public void record(long durationNanos) {
+		
+		long value = Math.max(0, durationNanos);
+		
+		int stripe = (int) Thread.currentThread().getId() & (STRIPE_COUNT - 1);
+		
+		counts.incrementAndGet(stripe * BUCKET_COUNT + bucketIndex(value));
+		max.accumulate(value);
+	}
+	
+	public Snapshot snapshot() {
+		
+		long[] buckets = new long[BUCKET_COUNT];
+		long total = 0;
+		
+		for (int stripe = 0; stripe < STRIPE_COUNT; stripe++) {
+			for (int i = 0; i < BUCKET_COUNT; i++) {
+				long count = counts.get(stripe * BUCKET_COUNT + i);
+				buckets[i] += count;
+				total += count;
+			}
+		}
+		
+		return new Snapshot(buckets, total, max.get());
+	}
+	
+	static int bucketIndex(long value) {
+		
+		if (value < SUB_BUCKET_COUNT) {
+			return (int) value;
+		}
+		
+		int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS + 1;
+		int subBucket = (int) (value >>> shift);
+		
+		return SUB_BUCKET_COUNT + (shift - 1) * SUB_BUCKET_HALF + (subBucket - SUB_BUCKET_HALF);
+	}
+	
+	// largest value that lands in the given bucket
+	static long highestValue(int index) {
+		
+		if (index < SUB_BUCKET_COUNT) {
+			return index;
+		}
+		
+		int shift = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF + 1;
+		long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+		
+		return ((subBucket + 1) << shift) - 1;
+	}
+	
+	public static class Snapshot {
+		
+		private final long[] buckets;
+		private final long count;
+		private final long max;
+		
+		Snapshot(long[] buckets, long count, long max) {
+			this.buckets = buckets;
+			this.count = count;
+			this.max = max;
+		}
+		
+		public long getCount() {
+			return count;
+		}
+		
+		public long getMax() {
+			return max;
+		}
+		
+		// percentile between 0 and 100 ... returns nanoseconds
+		public long getValueAtPercentile(double percentile) {
+			
+			if (count == 0) {
+				return 0;
+			}
+			
+			long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+			long seen = 0;
+			
+			for (int i = 0; i < buckets.length; i++) {
+				seen += buckets[i];
+				
+				if (seen >= target) {
+					return Math.min(highestValue(i), max);
+				}
+			}
+			
+			return max;
+		}
+		
+		@Override
+		public String toString() {
+			return "count=" + count
+					+ ", p50=" + micros(getValueAtPercentile(50))
+					+ ", p99=" + micros(getValueAtPercentile(99))
+					+ ", p999=" + micros(getValueAtPercentile(99.9))
+					+ ", max=" + micros(max);
+		}
+		
+		private static String micros(long nanos) {
+			return String.format("%.1fus", nanos / 1000.0);
+		}
+	}
+	
+}
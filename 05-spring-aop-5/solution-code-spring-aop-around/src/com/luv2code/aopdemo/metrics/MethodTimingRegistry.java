@@ -0,0 +1,77 @@
+package com.luv2code.aopdemo.metrics;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+// one histogram per timed method ... also published over JMX (look for com.luv2code.aopdemo in jconsole)
+@Component
+@ManagedResource(objectName="com.luv2code.aopdemo:type=MethodTimings")
+public class MethodTimingRegistry {
+
+	private final Map<Method, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+	
+	public void record(Method theMethod, long durationNanos) {
+		histograms.computeIfAbsent(theMethod, key -> new LatencyHistogram()).record(durationNanos);
+	}
+	
+	public LatencyHistogram.Snapshot getSnapshot(String methodName) {
+		
+		for (Map.Entry<Method, LatencyHistogram> entry : histograms.entrySet()) {
+			if (displayName(entry.getKey()).equals(methodName)) {
+				return entry.getValue().snapshot();
+			}
+		}
+		
+		return null;
+	}
+	
+	@ManagedAttribute(description="Names of the timed methods")
+	public List<String> getMethodNames() {
+		
+		List<String> names = new ArrayList<>();
+		
+		for (Method theMethod : histograms.keySet()) {
+			names.add(displayName(theMethod));
+		}
+		
+		return names;
+	}
+	
+	@ManagedAttribute(description="count, p50, p99, p999 and max for every timed method")
+	public List<String> getTimings() {
+		
+		List<String> timings = new ArrayList<>();
+		
+		for (Map.Entry<Method, LatencyHistogram> entry : histograms.entrySet()) {
+			timings.add(displayName(entry.getKey()) + ": " + entry.getValue().snapshot());
+		}
+		
+		return timings;
+	}
+	
+	@ManagedOperation(description="Value in nanoseconds at the given percentile (0-100) for one method")
+	public long getValueAtPercentile(String methodName, double percentile) {
+		
+		LatencyHistogram.Snapshot theSnapshot = getSnapshot(methodName);
+		
+		return theSnapshot == null ? 0 : theSnapshot.getValueAtPercentile(percentile);
+	}
+	
+	@ManagedOperation(description="Forget all recorded timings")
+	public void reset() {
+		histograms.clear();
+	}
+	
+	private static String displayName(Method theMethod) {
+		return theMethod.getDeclaringClass().getSimpleName() + "." + theMethod.getName();
+	}
+	
+}
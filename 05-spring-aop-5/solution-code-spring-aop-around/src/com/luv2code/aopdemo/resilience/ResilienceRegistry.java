@@ -0,0 +1,107 @@
+package com.luv2code.aopdemo.resilience;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+
+// timeout / hedge / fallback counts per @Resilient method ... also published over JMX
+@Component
+@ManagedResource(objectName="com.luv2code.aopdemo:type=Resilience")
+public class ResilienceRegistry {
+
+	private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+	
+	public Counters forMethod(String methodName) {
+		return counters.computeIfAbsent(methodName, key -> new Counters());
+	}
+	
+	@ManagedAttribute(description="calls, timeouts, hedges, hedge wins, fallbacks and rejections for every @Resilient method")
+	public List<String> getCounts() {
+		
+		List<String> counts = new ArrayList<>();
+		
+		for (Map.Entry<String, Counters> entry : counters.entrySet()) {
+			counts.add(entry.getKey() + ": " + entry.getValue());
+		}
+		
+		return counts;
+	}
+	
+	@ManagedOperation(description="Forget all counts")
+	public void reset() {
+		counters.clear();
+	}
+	
+	
+	public static class Counters {
+		
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder timeouts = new LongAdder();
+		private final LongAdder hedges = new LongAdder();
+		private final LongAdder hedgeWins = new LongAdder();
+		private final LongAdder fallbacks = new LongAdder();
+		private final LongAdder rejected = new LongAdder();
+		
+		public void call() {
+			calls.increment();
+		}
+		
+		public void timeout() {
+			timeouts.increment();
+		}
+		
+		public void hedge() {
+			hedges.increment();
+		}
+		
+		public void hedgeWin() {
+			hedgeWins.increment();
+		}
+		
+		public void fallback() {
+			fallbacks.increment();
+		}
+		
+		public void rejected() {
+			rejected.increment();
+		}
+
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		public long getTimeouts() {
+			return timeouts.sum();
+		}
+
+		public long getHedges() {
+			return hedges.sum();
+		}
+
+		public long getHedgeWins() {
+			return hedgeWins.sum();
+		}
+
+		public long getFallbacks() {
+			return fallbacks.sum();
+		}
+
+		public long getRejected() {
+			return rejected.sum();
+		}
+		
+		@Override
+		public String toString() {
+			return "calls=" + getCalls() + ", timeouts=" + getTimeouts() + ", hedges=" + getHedges() 
+					+ ", hedgeWins=" + getHedgeWins() + ", fallbacks=" + getFallbacks() + ", rejected=" + getRejected();
+		}
+	}
+	
+}
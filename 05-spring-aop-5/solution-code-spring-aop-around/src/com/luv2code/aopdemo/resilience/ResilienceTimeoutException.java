@@ -0,0 +1,11 @@
+package com.luv2code.aopdemo.resilience;
+
+public class ResilienceTimeoutException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ResilienceTimeoutException(String message) {
+		super(message);
+	}
+	
+}
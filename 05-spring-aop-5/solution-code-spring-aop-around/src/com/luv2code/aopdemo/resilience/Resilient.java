@@ -0,0 +1,25 @@
+package com.luv2code.aopdemo.resilience;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// run the method on a bounded pool with a deadline ... see ResilienceAspect
+//
+// on timeout the caller gets the last result returned for the same arguments,
+// else the fallback (String methods only), else a ResilienceTimeoutException
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Resilient {
+
+	// how long the caller waits in total
+	long timeoutMillis() default 1000;
+	
+	// start a second attempt if the first hasn't answered by then ... 0 = no hedging
+	long hedgeAfterMillis() default 0;
+	
+	// returned on timeout when there's no cached result, for methods returning String
+	String fallback() default "";
+	
+}
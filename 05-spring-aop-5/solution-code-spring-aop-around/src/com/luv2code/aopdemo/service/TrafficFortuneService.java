@@ -4,9 +4,16 @@ import java.util.concurrent.TimeUnit;
 
 import org.springframework.stereotype.Component;
 
+import com.luv2code.aopdemo.metrics.Timed;
+import com.luv2code.aopdemo.resilience.Resilient;
+
 @Component
 public class TrafficFortuneService {
 
+	// callers wait at most 2 seconds ... a second attempt starts after 1 second
+	@Timed
+	@Resilient(timeoutMillis=2000, hedgeAfterMillis=1000, 
+				fallback="Traffic report unavailable, allow extra time this morning")
 	public String getFortune() {
 		
 		// simulate a delay
@@ -16,8 +23,8 @@ public class TrafficFortuneService {
 			TimeUnit.SECONDS.sleep(5);
 			
 		} catch (InterruptedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+			// cancelled by ResilienceAspect after the caller stopped waiting
+			Thread.currentThread().interrupt();
 		}
 		
 		// return a fortune
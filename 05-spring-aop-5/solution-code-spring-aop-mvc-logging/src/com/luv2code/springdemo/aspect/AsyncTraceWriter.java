@@ -0,0 +1,197 @@
+package com.luv2code.springdemo.aspect;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.aspectj.lang.Signature;
+
+// production mode for CRMLoggingAspect
+//
+// request threads only drop a TraceEvent into a lock-free ring buffer ... a single background
+// thread renders and logs it. When the buffer is full the event is dropped and counted,
+// so a slow log never slows down a request.
+public class AsyncTraceWriter {
+
+	private static final long IDLE_PARK_NANOS = 1_000_000L;
+	
+	private Logger myLogger = Logger.getLogger(CRMLoggingAspect.class.getName());
+	
+	// settings ... injected from the spring config file
+	private int capacity = 8192;
+	private int sampleRate = 1;
+	private int maxChars = 200;
+	private int maxElements = 5;
+	
+	private AtomicReferenceArray<TraceEvent> slots;
+	private int mask;
+	
+	// next slot to claim (producers) and next slot to drain (writer thread only)
+	private final AtomicLong tail = new AtomicLong();
+	private final AtomicLong head = new AtomicLong();
+	
+	private final AtomicLong droppedCount = new AtomicLong();
+	
+	private TraceRenderer renderer;
+	
+	private volatile boolean running;
+	
+	private Thread writerThread;
+	
+	public void start() {
+		
+		// round up to a power of two so the slot index is a mask instead of a modulo
+		int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+		
+		slots = new AtomicReferenceArray<>(size);
+		mask = size - 1;
+		renderer = new TraceRenderer(maxChars, maxElements);
+		
+		running = true;
+		
+		writerThread = new Thread(this::drainLoop, "crm-trace-writer");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+	
+	public void shutdown() throws InterruptedException {
+		
+		running = false;
+		
+		LockSupport.unpark(writerThread);
+		writerThread.join();
+	}
+	
+	// decide once per advised call whether it gets traced ... CRMLoggingAspect asks before the
+	// call and only hands over its entry and exit events if the answer was yes, so a sampled
+	// trace always has both lines (unless the buffer was full, which is counted)
+	public boolean sample() {
+		
+		if (!running || !myLogger.isLoggable(Level.INFO)) {
+			return false;
+		}
+		
+		// keep 1 out of every sampleRate calls
+		return sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+	}
+	
+	public void before(Signature theSignature, Object[] args) {
+		publish(TraceEvent.BEFORE, theSignature, args, null);
+	}
+	
+	public void afterReturning(Signature theSignature, Object theResult) {
+		publish(TraceEvent.AFTER_RETURNING, theSignature, null, theResult);
+	}
+	
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+	
+	private void publish(int phase, Signature theSignature, Object[] args, Object theResult) {
+		
+		if (!running) {
+			return;
+		}
+		
+		// claim a slot ... give up instead of waiting if the writer is a full buffer behind
+		long sequence;
+		
+		do {
+			sequence = tail.get();
+			
+			if (sequence - head.get() >= slots.length()) {
+				droppedCount.incrementAndGet();
+				return;
+			}
+		}
+		while (!tail.compareAndSet(sequence, sequence + 1));
+		
+		TraceEvent event = new TraceEvent(phase, Thread.currentThread().getName(), 
+											theSignature, args, theResult);
+		
+		slots.lazySet((int) sequence & mask, event);
+	}
+	
+	private void drainLoop() {
+		
+		StringBuilder line = new StringBuilder(256);
+		
+		while (running || head.get() != tail.get()) {
+			
+			long sequence = head.get();
+			int index = (int) sequence & mask;
+			
+			TraceEvent event = slots.get(index);
+			
+			// either the buffer is empty or the producer hasn't stored its event yet
+			if (event == null) {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			
+			slots.lazySet(index, null);
+			head.lazySet(sequence + 1);
+			
+			try {
+				write(event, line);
+			}
+			catch (RuntimeException exc) {
+				myLogger.log(Level.WARNING, "=====>> could not render trace event", exc);
+			}
+		}
+	}
+	
+	private void write(TraceEvent event, StringBuilder line) {
+		
+		line.setLength(0);
+		line.append('[');
+		
+		// when the call happened ... the logger's own time is when this thread got round to it
+		renderer.renderTimeStamp(event.getTimeStamp(), line);
+		
+		line.append(' ').append(event.getThreadName()).append("] ");
+		
+		if (event.getPhase() == TraceEvent.BEFORE) {
+			
+			line.append("=====>> in @Before: calling method: ")
+				.append(event.getSignature().toShortString());
+			
+			Object[] args = event.getArgs();
+			
+			for (int i = 0; i < args.length; i++) {
+				line.append(i == 0 ? " args: " : ", ");
+				renderer.render(args[i], line);
+			}
+		}
+		else {
+			
+			line.append("=====>> in @AfterReturning: from method: ")
+				.append(event.getSignature().toShortString())
+				.append(" result: ");
+			
+			renderer.render(event.getResult(), line);
+		}
+		
+		myLogger.info(line.toString());
+	}
+
+	public void setCapacity(int capacity) {
+		this.capacity = capacity;
+	}
+
+	public void setSampleRate(int sampleRate) {
+		this.sampleRate = sampleRate;
+	}
+
+	public void setMaxChars(int maxChars) {
+		this.maxChars = maxChars;
+	}
+
+	public void setMaxElements(int maxElements) {
+		this.maxElements = maxElements;
+	}
+	
+}
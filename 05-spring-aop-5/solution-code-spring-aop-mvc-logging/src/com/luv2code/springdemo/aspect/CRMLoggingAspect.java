@@ -1,5 +1,6 @@
 package com.luv2code.springdemo.aspect;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.aspectj.lang.JoinPoint;
@@ -7,15 +8,30 @@ import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 @Aspect
 @Component
+// outside MethodTimingAspect ... logging shouldn't show up in the recorded timings
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
 public class CRMLoggingAspect {
 
+	// marks a call the trace writer sampled ... @AfterReturning looks for it on the same invocation
+	private static final String TRACED_ATTRIBUTE = CRMLoggingAspect.class.getName() + ".traced";
+	
 	// setup logger
 	private Logger myLogger = Logger.getLogger(getClass().getName());
 	
+	// production mode ... when this bean is defined in the spring config file, events are
+	// handed off to a background thread instead of being logged on the request thread
+	@Autowired(required=false)
+	private AsyncTraceWriter traceWriter;
+	
 	// setup pointcut declarations
 	@Pointcut("execution(* com.luv2code.springdemo.controller.*.*(..))")
 	private void forControllerPackage() {}
@@ -34,6 +50,21 @@ public class CRMLoggingAspect {
 	@Before("forAppFlow()")
 	public void before(JoinPoint theJoinPoint) {
 		
+		if (traceWriter != null) {
+			
+			// sample the call, not each event ... remember the decision for @AfterReturning
+			if (traceWriter.sample()) {
+				currentInvocation().setUserAttribute(TRACED_ATTRIBUTE, Boolean.TRUE);
+				traceWriter.before(theJoinPoint.getSignature(), theJoinPoint.getArgs());
+			}
+			return;
+		}
+		
+		// skip all the string building when INFO is turned off
+		if (!myLogger.isLoggable(Level.INFO)) {
+			return;
+		}
+		
 		// display method we are calling
 		String theMethod = theJoinPoint.getSignature().toShortString();
 		myLogger.info("=====>> in @Before: calling method: " + theMethod);
@@ -58,6 +89,18 @@ public class CRMLoggingAspect {
 			)
 	public void afterReturning(JoinPoint theJoinPoint, Object theResult) {
 	
+		if (traceWriter != null) {
+			
+			if (currentInvocation().getUserAttribute(TRACED_ATTRIBUTE) != null) {
+				traceWriter.afterReturning(theJoinPoint.getSignature(), theResult);
+			}
+			return;
+		}
+		
+		if (!myLogger.isLoggable(Level.INFO)) {
+			return;
+		}
+		
 		// display method we are returning from
 		String theMethod = theJoinPoint.getSignature().toShortString();
 		myLogger.info("=====>> in @AfterReturning: from method: " + theMethod);
@@ -67,6 +110,12 @@ public class CRMLoggingAspect {
 	
 	}
 	
+	// the call being advised ... spring puts ExposeInvocationInterceptor first in every
+	// @AspectJ advice chain, and both advices of one call see the same invocation
+	private static ProxyMethodInvocation currentInvocation() {
+		return (ProxyMethodInvocation) ExposeInvocationInterceptor.currentInvocation();
+	}
+	
 	
 	
 	
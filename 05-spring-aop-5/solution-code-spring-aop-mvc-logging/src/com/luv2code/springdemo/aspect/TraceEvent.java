@@ -0,0 +1,51 @@
+package com.luv2code.springdemo.aspect;
+
+import org.aspectj.lang.Signature;
+
+// one captured advice call ... holds raw references only, rendering happens on the writer thread
+public class TraceEvent {
+
+	public static final int BEFORE = 0;
+	public static final int AFTER_RETURNING = 1;
+	
+	private final int phase;
+	private final long timeStamp;
+	private final String threadName;
+	private final Signature signature;
+	private final Object[] args;
+	private final Object result;
+	
+	public TraceEvent(int phase, String threadName, Signature signature, Object[] args, Object result) {
+		this.phase = phase;
+		this.timeStamp = System.currentTimeMillis();
+		this.threadName = threadName;
+		this.signature = signature;
+		this.args = args;
+		this.result = result;
+	}
+
+	public int getPhase() {
+		return phase;
+	}
+
+	public long getTimeStamp() {
+		return timeStamp;
+	}
+
+	public String getThreadName() {
+		return threadName;
+	}
+
+	public Signature getSignature() {
+		return signature;
+	}
+
+	public Object[] getArgs() {
+		return args;
+	}
+
+	public Object getResult() {
+		return result;
+	}
+	
+}
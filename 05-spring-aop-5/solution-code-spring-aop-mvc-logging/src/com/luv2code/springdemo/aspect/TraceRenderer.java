@@ -0,0 +1,100 @@
+package com.luv2code.springdemo.aspect;
+
+import java.lang.reflect.Array;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+// turns arguments and results into bounded strings ... a big list shows its size and first few elements
+public class TraceRenderer {
+
+	private static final DateTimeFormatter TIME_STAMP_FORMAT =
+			DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+	
+	private final int maxChars;
+	private final int maxElements;
+	
+	public TraceRenderer(int maxChars, int maxElements) {
+		this.maxChars = maxChars;
+		this.maxElements = maxElements;
+	}
+
+	public void renderTimeStamp(long epochMillis, StringBuilder out) {
+		TIME_STAMP_FORMAT.formatTo(Instant.ofEpochMilli(epochMillis), out);
+	}
+
+	public void render(Object value, StringBuilder out) {
+		
+		if (value == null) {
+			out.append("null");
+		}
+		else if (value instanceof Collection) {
+			Collection<?> collection = (Collection<?>) value;
+			renderElements(value, collection.size(), collection.iterator(), out);
+		}
+		else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			renderElements(value, map.size(), map.entrySet().iterator(), out);
+		}
+		else if (value.getClass().isArray()) {
+			
+			int length = Array.getLength(value);
+			
+			out.append(value.getClass().getComponentType().getSimpleName())
+				.append("[size=").append(length).append("] [");
+			
+			int shown = Math.min(length, maxElements);
+			
+			for (int i = 0; i < shown; i++) {
+				if (i > 0) {
+					out.append(", ");
+				}
+				append(String.valueOf(Array.get(value, i)), out);
+			}
+			
+			if (length > shown) {
+				out.append(", ...");
+			}
+			
+			out.append(']');
+		}
+		else {
+			append(value.toString(), out);
+		}
+	}
+
+	private void renderElements(Object container, int size, Iterator<?> elements, StringBuilder out) {
+		
+		out.append(container.getClass().getSimpleName()).append("[size=").append(size).append("] [");
+		
+		int shown = 0;
+		
+		while (elements.hasNext() && shown < maxElements) {
+			if (shown > 0) {
+				out.append(", ");
+			}
+			append(String.valueOf(elements.next()), out);
+			shown++;
+		}
+		
+		if (size > shown) {
+			out.append(", ...");
+		}
+		
+		out.append(']');
+	}
+	
+	private void append(String text, StringBuilder out) {
+		
+		if (text.length() <= maxChars) {
+			out.append(text);
+		}
+		else {
+			out.append(text, 0, maxChars).append("...(").append(text.length()).append(" chars)");
+		}
+	}
+	
+}
@@ -10,8 +10,11 @@ import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.luv2code.springdemo.entity.Customer;
+import com.luv2code.springdemo.metrics.Timed;
 
 @Repository
+// every DAO method ... see MethodTimingRegistry over JMX
+@Timed
 public class CustomerDAOImpl implements CustomerDAO {
 
 	// need to inject the session factory
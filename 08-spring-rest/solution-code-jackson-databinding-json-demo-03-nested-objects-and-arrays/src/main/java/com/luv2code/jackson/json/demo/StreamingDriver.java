@@ -0,0 +1,152 @@
+package com.luv2code.jackson.json.demo;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares reading a whole file into a Student[] against the streaming reads in StudentStreamReader.
+ * 
+ * Usage: StreamingDriver [record count] (default 200000)
+ */
+public class StreamingDriver {
+
+	public static void main(String[] args) {
+		
+		try {
+			int recordCount = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+			
+			// create object mapper
+			ObjectMapper mapper = new ObjectMapper();
+			
+			// use data/sample-full.json as the template record
+			String record = mapper.writeValueAsString(
+						mapper.readValue(new File("data/sample-full.json"), Student.class));
+			
+			Path arrayFile = Files.createTempFile("students", ".json");
+			Path linesFile = Files.createTempFile("students", ".ndjson");
+			
+			try {
+				writeArray(arrayFile, record, recordCount);
+				writeLines(linesFile, record, recordCount);
+				
+				StudentStreamReader reader = new StudentStreamReader(mapper);
+				
+				// read the whole array into memory at once
+				run("whole document", arrayFile, () -> 
+						mapper.readValue(arrayFile.toFile(), Student[].class).length);
+				
+				// stream the array, one student at a time
+				run("streaming array", arrayFile, () -> 
+						reader.readArray(arrayFile, StreamingDriver::touch));
+				
+				// stream NDJSON, one student at a time
+				run("ndjson", linesFile, () -> 
+						reader.readLines(linesFile, StreamingDriver::touch));
+				
+				// stream NDJSON chunks on all cores
+				LongAdder activeCount = new LongAdder();
+				
+				run("ndjson parallel", linesFile, () -> 
+						reader.readLinesParallel(linesFile, theStudent -> {
+							if (theStudent.isActive()) {
+								activeCount.increment();
+							}
+						}, Runtime.getRuntime().availableProcessors()));
+			}
+			finally {
+				Files.deleteIfExists(arrayFile);
+				Files.deleteIfExists(linesFile);
+			}
+		}
+		catch (Exception exc) {
+			exc.printStackTrace();
+		}
+	}
+	
+	// stand-in for real per-record work
+	private static void touch(Student theStudent) {
+		if (theStudent.getAddress() == null) {
+			throw new IllegalStateException("Student " + theStudent.getId() + " has no address");
+		}
+	}
+	
+	private static void run(String name, Path file, Read read) throws IOException {
+		
+		System.gc();
+		resetPeakHeap();
+		
+		long start = System.nanoTime();
+		long count = read.run();
+		double seconds = (System.nanoTime() - start) / 1e9;
+		
+		double megabytes = Files.size(file) / (1024.0 * 1024.0);
+		
+		System.out.printf("%-16s %,10d records  %,10.0f records/sec  %8.1f MB/s  peak heap %,8.1f MB%n",
+				name, count, count / seconds, megabytes / seconds, peakHeap() / (1024.0 * 1024.0));
+	}
+	
+	private static void writeArray(Path file, String record, int recordCount) throws IOException {
+		
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			
+			out.write('[');
+			
+			for (int i = 0; i < recordCount; i++) {
+				if (i > 0) {
+					out.write(",\n");
+				}
+				out.write(record);
+			}
+			
+			out.write(']');
+		}
+	}
+
+	private static void writeLines(Path file, String record, int recordCount) throws IOException {
+		
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			
+			for (int i = 0; i < recordCount; i++) {
+				out.write(record);
+				out.write('\n');
+			}
+		}
+	}
+	
+	private static void resetPeakHeap() {
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+			}
+		}
+	}
+	
+	private static long peakHeap() {
+		
+		long peak = 0;
+		
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				peak += pool.getPeakUsage().getUsed();
+			}
+		}
+		
+		return peak;
+	}
+	
+	@FunctionalInterface
+	private interface Read {
+		long run() throws IOException;
+	}
+	
+}
@@ -0,0 +1,235 @@
+package com.luv2code.jackson.json.demo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
+/**
+ * Reads large files of Student records one record at a time, so memory use
+ * depends on the size of one Student rather than the size of the file.
+ * 
+ * Supports a JSON array of students ([{...}, {...}]) and NDJSON (one student per line).
+ * Files are memory-mapped in windows, so multi-GB files work too.
+ */
+public class StudentStreamReader {
+
+	// a single mapping can't be larger than 2GB ... map big files in windows of this size
+	private static final long MAP_WINDOW_SIZE = 256L * 1024 * 1024;
+	
+	// target size of one NDJSON chunk in parallel mode
+	private static final long PARALLEL_CHUNK_SIZE = 16L * 1024 * 1024;
+	
+	private final ObjectMapper mapper;
+	private final ObjectReader studentReader;
+	
+	public StudentStreamReader(ObjectMapper mapper) {
+		this.mapper = mapper;
+		this.studentReader = mapper.readerFor(Student.class);
+	}
+
+	// file holds a JSON array of students ... returns the number of students read
+	public long readArray(Path file, Consumer<Student> consumer) throws IOException {
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+			 JsonParser parser = mapper.getFactory().createParser(mappedStream(channel, 0, channel.size()))) {
+			
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new IOException("Expected a JSON array of students in " + file);
+			}
+			
+			// step onto the first element ... MappingIterator then binds one element per next()
+			if (parser.nextToken() == JsonToken.END_ARRAY) {
+				return 0;
+			}
+			
+			long count = 0;
+			
+			try (MappingIterator<Student> students = studentReader.readValues(parser)) {
+				
+				while (students.hasNextValue()) {
+					consumer.accept(students.nextValue());
+					count++;
+				}
+			}
+			
+			return count;
+		}
+	}
+	
+	// file holds one student per line (NDJSON) ... returns the number of students read
+	public long readLines(Path file, Consumer<Student> consumer) throws IOException {
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return readRange(channel, 0, channel.size(), consumer);
+		}
+	}
+	
+	// same as readLines, but splits the file at line boundaries and parses the pieces on a fork-join pool
+	// the consumer is called from several threads at once, so it must be thread-safe
+	public long readLinesParallel(Path file, Consumer<Student> consumer, int parallelism) throws IOException {
+		
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			
+			List<long[]> ranges = splitAtLines(channel, PARALLEL_CHUNK_SIZE);
+			
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			
+			try {
+				return pool.invoke(new RangeTask(channel, ranges, 0, ranges.size(), consumer));
+			}
+			catch (RuntimeException exc) {
+				
+				// fork-join may hand back a copy of the worker's exception ... dig out the IOException
+				for (Throwable cause = exc; cause != null; cause = cause.getCause()) {
+					if (cause instanceof IOException) {
+						throw (IOException) cause;
+					}
+				}
+				
+				throw exc;
+			}
+			finally {
+				pool.shutdown();
+			}
+		}
+	}
+	
+	private long readRange(FileChannel channel, long start, long end, Consumer<Student> consumer) throws IOException {
+		
+		long count = 0;
+		
+		try (MappingIterator<Student> students = studentReader.readValues(mappedStream(channel, start, end))) {
+			
+			while (students.hasNextValue()) {
+				consumer.accept(students.nextValue());
+				count++;
+			}
+		}
+		
+		return count;
+	}
+	
+	// [start, end) ranges of roughly chunkSize bytes, each ending just after a newline
+	private static List<long[]> splitAtLines(FileChannel channel, long chunkSize) throws IOException {
+		
+		List<long[]> ranges = new ArrayList<>();
+		
+		long size = channel.size();
+		long start = 0;
+		
+		ByteBuffer probe = ByteBuffer.allocate(8192);
+		
+		while (start < size) {
+			
+			long end = Math.min(start + chunkSize, size);
+			
+			// move the end forward to the next newline
+			while (end < size) {
+				
+				probe.clear();
+				int read = channel.read(probe, end);
+				
+				int newline = -1;
+				
+				for (int i = 0; i < read; i++) {
+					if (probe.get(i) == '\n') {
+						newline = i;
+						break;
+					}
+				}
+				
+				if (newline >= 0) {
+					end += newline + 1;
+					break;
+				}
+				
+				end += Math.max(read, 0);
+			}
+			
+			ranges.add(new long[] { start, Math.min(end, size) });
+			start = end;
+		}
+		
+		return ranges;
+	}
+	
+	private static InputStream mappedStream(FileChannel channel, long start, long end) throws IOException {
+		
+		List<InputStream> windows = new ArrayList<>();
+		
+		for (long position = start; position < end; position += MAP_WINDOW_SIZE) {
+			
+			MappedByteBuffer buffer = 
+					channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW_SIZE, end - position));
+			
+			windows.add(new ByteBufferBackedInputStream(buffer));
+		}
+		
+		return new SequenceInputStream(Collections.enumeration(windows));
+	}
+	
+	// splits the list of ranges in half until one range is left, then parses it
+	private class RangeTask extends RecursiveTask<Long> {
+		
+		private final FileChannel channel;
+		private final List<long[]> ranges;
+		private final int from;
+		private final int to;
+		private final Consumer<Student> consumer;
+		
+		RangeTask(FileChannel channel, List<long[]> ranges, int from, int to, Consumer<Student> consumer) {
+			this.channel = channel;
+			this.ranges = ranges;
+			this.from = from;
+			this.to = to;
+			this.consumer = consumer;
+		}
+
+		@Override
+		protected Long compute() {
+			
+			if (to - from == 0) {
+				return 0L;
+			}
+			
+			if (to - from == 1) {
+				try {
+					long[] range = ranges.get(from);
+					return readRange(channel, range[0], range[1], consumer);
+				}
+				catch (IOException exc) {
+					throw new UncheckedIOException(exc);
+				}
+			}
+			
+			int middle = (from + to) >>> 1;
+			
+			RangeTask left = new RangeTask(channel, ranges, from, middle, consumer);
+			RangeTask right = new RangeTask(channel, ranges, middle, to, consumer);
+			
+			left.fork();
+			
+			return right.compute() + left.join();
+		}
+	}
+	
+}
@@ -2,6 +2,8 @@ package com.luv2code.springdemo.entity;
 
 public class Student {
 
+	// null when a request body leaves it out ... so a missing id can't quietly mean student 0
+	private Integer id;
 	private String firstName;
 	private String lastName;
 	
@@ -14,6 +16,20 @@ public class Student {
 		this.lastName = lastName;
 	}
 
+	public Student(int id, String firstName, String lastName) {
+		this.id = id;
+		this.firstName = firstName;
+		this.lastName = lastName;
+	}
+
+	public Integer getId() {
+		return id;
+	}
+
+	public void setId(Integer id) {
+		this.id = id;
+	}
+
 	public String getFirstName() {
 		return firstName;
 	}
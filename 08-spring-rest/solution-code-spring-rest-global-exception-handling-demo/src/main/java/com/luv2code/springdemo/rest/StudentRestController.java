@@ -1,76 +1,110 @@
 package com.luv2code.springdemo.rest;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import javax.annotation.PostConstruct;
-
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.luv2code.springdemo.entity.Student;
+import com.luv2code.springdemo.store.StudentStore;
 
 @RestController
 @RequestMapping("/api")
 public class StudentRestController {
 
-	private List<Student> theStudents;
-	
-	
-	// define @PostConstruct to load the student data ... only once!
-	
-	@PostConstruct
-	public void loadData() {
-	
-		theStudents = new ArrayList<>();
-		
-		theStudents.add(new Student("Poornima", "Patel"));
-		theStudents.add(new Student("Mario", "Rossi"));
-		theStudents.add(new Student("Mary", "Smith"));		
-	}
-	
-	
-	
+	// the store loads the student data ... only once!
+
+	@Autowired
+	private StudentStore studentStore;
+
+
+
 	// define endpoint for "/students" - return list of students
-	
-	@GetMapping("/students")
-	public List<Student> getStudents() {
-			
-		return theStudents;
+
+	@GetMapping(value="/students", produces=MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> getStudents() {
+
+		// already serialized by the store ... no Jackson on the way out
+
+		return ResponseEntity.ok()
+				.contentType(MediaType.APPLICATION_JSON_UTF8)
+				.body(studentStore.findAllAsJson());
 	}
-	
-	// define endpoint for "/students/{studentId}" - return student at index
+
+	// define endpoint for "/students/search?lastName=..." - students whose last name starts with it
+
+	@GetMapping("/students/search")
+	public List<Student> searchStudents(@RequestParam String lastName) {
+
+		return studentStore.findByLastNameStartingWith(lastName);
+	}
+
+	// define endpoint for "/students/{studentId}" - return student with that id
 
 	@GetMapping("/students/{studentId}")
 	public Student getStudent(@PathVariable int studentId) {
-		
-		// just index into the list ... keep it simple for now
-		
-		// check the studentId against list size
-		
-		if ( (studentId >= theStudents.size()) || (studentId < 0) ) {
+
+		Student theStudent = studentStore.findById(studentId);
+
+		if (theStudent == null) {
 			throw new StudentNotFoundException("Student id not found - " + studentId);
 		}
-			
-		return theStudents.get(studentId);
-		
-	}	
-	
-}
 
+		return theStudent;
+	}
+
+	// add mapping for POST /students - add new student
 
+	@PostMapping("/students")
+	@ResponseStatus(HttpStatus.CREATED)
+	public Student addStudent(@RequestBody Student theStudent) {
 
+		// any id in the JSON is ignored ... the store assigns the next one
 
+		return studentStore.add(theStudent);
+	}
 
+	// add mapping for PUT /students - update existing student
 
+	@PutMapping("/students")
+	public Student updateStudent(@RequestBody Student theStudent) {
 
+		// ids start at 0 ... without this check a body with no id would overwrite student 0
+		if (theStudent.getId() == null) {
+			throw new IllegalArgumentException("Student id is required");
+		}
 
+		Student stored = studentStore.update(theStudent);
 
+		if (stored == null) {
+			throw new StudentNotFoundException("Student id not found - " + theStudent.getId());
+		}
 
+		return stored;
+	}
 
+	// add mapping for DELETE /students/{studentId} - delete student
 
+	@DeleteMapping("/students/{studentId}")
+	public String deleteStudent(@PathVariable int studentId) {
+
+		if (!studentStore.delete(studentId)) {
+			throw new StudentNotFoundException("Student id not found - " + studentId);
+		}
+
+		return "Deleted student id - " + studentId;
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.luv2code.springdemo.store;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.luv2code.springdemo.entity.Student;
+
+/**
+ * In-memory student data, safe to read and update from any number of request threads.
+ *
+ * Everything readers need lives in one immutable Snapshot behind a volatile field:
+ *
+ *  - byId          hash index ... O(1) lookup by id
+ *  - byLastName    sorted by last name (case-insensitive), then first name, then id
+ *  - json          the whole collection already serialized, so GET /students just copies bytes
+ *
+ * Reads never lock, they just pick up the current snapshot. Writes take the lock, copy the snapshot,
+ * change the copy and publish it (copy-on-write) ... that makes writes O(n) including the
+ * re-serialization, which is fine for reference data that is read far more often than it changes.
+ *
+ * Students handed out are shared by all readers and must be treated as read-only.
+ */
+@Component
+public class StudentStore {
+
+	private static final Comparator<Student> LAST_NAME_ORDER =
+			Comparator.comparing(Student::getLastName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+						.thenComparing(Student::getFirstName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER))
+						.thenComparingInt(Student::getId);
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	// writers queue up here ... readers never touch it
+	private final Object writeLock = new Object();
+
+	private volatile Snapshot snapshot;
+
+	public StudentStore() {
+		snapshot = new Snapshot(new ArrayList<>(), new HashMap<>(), new ArrayList<>(), 0, serialize(new ArrayList<>()));
+	}
+
+	// define @PostConstruct to load the student data ... only once!
+
+	@PostConstruct
+	public void loadData() {
+
+		// ids start at 0 ... so /students/0, /1 and /2 still find the same students as before
+		add(new Student("Poornima", "Patel"));
+		add(new Student("Mario", "Rossi"));
+		add(new Student("Mary", "Smith"));
+	}
+
+	public List<Student> findAll() {
+		return snapshot.students;
+	}
+
+	public Student findById(int theId) {
+		return snapshot.byId.get(theId);
+	}
+
+	// all students whose last name starts with thePrefix (ignoring case), in last name order
+	public List<Student> findByLastNameStartingWith(String thePrefix) {
+
+		List<Student> sorted = snapshot.byLastName;
+
+		// matches are one contiguous run in the sorted index ... find where it starts
+		int low = 0;
+		int high = sorted.size();
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			String lastName = sorted.get(mid).getLastName();
+
+			if (lastName == null || String.CASE_INSENSITIVE_ORDER.compare(lastName, thePrefix) < 0) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+
+		int end = low;
+
+		while (end < sorted.size() && startsWithIgnoreCase(sorted.get(end).getLastName(), thePrefix)) {
+			end++;
+		}
+
+		return sorted.subList(low, end);
+	}
+
+	// the full collection as JSON ... same content as findAll(), serialized when it last changed
+	// it's the one shared array, write it out but don't change it
+	public byte[] findAllAsJson() {
+		return snapshot.json;
+	}
+
+	// assigns the next id and returns the student as stored
+	public Student add(Student theStudent) {
+
+		synchronized (writeLock) {
+
+			Snapshot current = snapshot;
+
+			Student stored = copyOf(current.nextId, theStudent);
+
+			List<Student> students = new ArrayList<>(current.students);
+			students.add(stored);
+
+			Map<Integer, Student> byId = new HashMap<>(current.byId);
+			byId.put(stored.getId(), stored);
+
+			List<Student> byLastName = new ArrayList<>(current.byLastName);
+			insertSorted(byLastName, stored);
+
+			snapshot = new Snapshot(students, byId, byLastName, current.nextId + 1, serialize(students));
+
+			return stored;
+		}
+	}
+
+	// replaces the student with theStudent's id ... null if there is no such student
+	public Student update(Student theStudent) {
+
+		synchronized (writeLock) {
+
+			Snapshot current = snapshot;
+
+			Student existing = current.byId.get(theStudent.getId());
+
+			if (existing == null) {
+				return null;
+			}
+
+			Student stored = copyOf(existing.getId(), theStudent);
+
+			List<Student> students = new ArrayList<>(current.students);
+			students.set(students.indexOf(existing), stored);
+
+			Map<Integer, Student> byId = new HashMap<>(current.byId);
+			byId.put(stored.getId(), stored);
+
+			// the last name may have changed ... take it out and put it back in its new place
+			List<Student> byLastName = new ArrayList<>(current.byLastName);
+			byLastName.remove(Collections.binarySearch(byLastName, existing, LAST_NAME_ORDER));
+			insertSorted(byLastName, stored);
+
+			snapshot = new Snapshot(students, byId, byLastName, current.nextId, serialize(students));
+
+			return stored;
+		}
+	}
+
+	// false if there was no student with that id
+	public boolean delete(int theId) {
+
+		synchronized (writeLock) {
+
+			Snapshot current = snapshot;
+
+			Student existing = current.byId.get(theId);
+
+			if (existing == null) {
+				return false;
+			}
+
+			List<Student> students = new ArrayList<>(current.students);
+			students.remove(existing);
+
+			Map<Integer, Student> byId = new HashMap<>(current.byId);
+			byId.remove(theId);
+
+			List<Student> byLastName = new ArrayList<>(current.byLastName);
+			byLastName.remove(Collections.binarySearch(byLastName, existing, LAST_NAME_ORDER));
+
+			snapshot = new Snapshot(students, byId, byLastName, current.nextId, serialize(students));
+
+			return true;
+		}
+	}
+
+	// callers keep their own object ... we store a copy they can't change behind our back
+	private static Student copyOf(int theId, Student theStudent) {
+		return new Student(theId, theStudent.getFirstName(), theStudent.getLastName());
+	}
+
+	private static void insertSorted(List<Student> theSorted, Student theStudent) {
+
+		// not found, so binarySearch gives back -(insertion point) - 1
+		int index = Collections.binarySearch(theSorted, theStudent, LAST_NAME_ORDER);
+
+		theSorted.add(-index - 1, theStudent);
+	}
+
+	private static boolean startsWithIgnoreCase(String theValue, String thePrefix) {
+		return theValue != null && theValue.regionMatches(true, 0, thePrefix, 0, thePrefix.length());
+	}
+
+	private byte[] serialize(List<Student> theStudents) {
+
+		try {
+			return objectMapper.writeValueAsBytes(theStudents);
+		}
+		catch (JsonProcessingException exc) {
+			throw new IllegalStateException("Could not serialize students", exc);
+		}
+	}
+
+	// never changed once published ... a write builds a new one
+	private static class Snapshot {
+
+		private final List<Student> students;
+		private final Map<Integer, Student> byId;
+		private final List<Student> byLastName;
+		private final int nextId;
+		private final byte[] json;
+
+		Snapshot(List<Student> theStudents, Map<Integer, Student> theById, List<Student> theByLastName,
+					int theNextId, byte[] theJson) {
+			students = Collections.unmodifiableList(theStudents);
+			byId = theById;
+			byLastName = Collections.unmodifiableList(theByLastName);
+			nextId = theNextId;
+			json = theJson;
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+USE `web_customer_tracker`;
+
+--
+-- Table structure for table `id_generator`
+--
+-- Customer ids are handed out in blocks from this table instead of AUTO_INCREMENT
+-- so Hibernate can batch the inserts. The stored value is the upper end of the next
+-- block, so seed it one allocationSize (50) past the highest existing id.
+--
+
+DROP TABLE IF EXISTS `id_generator`;
+
+CREATE TABLE `id_generator` (
+  `gen_name` varchar(64) NOT NULL,
+  `gen_value` bigint(20) NOT NULL,
+  PRIMARY KEY (`gen_name`)
+) ENGINE=InnoDB DEFAULT CHARSET=latin1;
+
+INSERT INTO `id_generator` (`gen_name`, `gen_value`)
+	SELECT 'customer', COALESCE(MAX(`id`), 0) + 50 FROM `customer`;
@@ -0,0 +1,11 @@
+USE `web_customer_tracker`;
+
+--
+-- Version column for optimistic locking on `customer`
+--
+-- Hibernate bumps it on every update and only updates the row if it still has the
+-- version the client read ... the REST API sends it as the ETag.
+--
+
+ALTER TABLE `customer`
+  ADD COLUMN `version` int(11) NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+USE `web_customer_tracker`;
+
+--
+-- Index for paging through `customer` by (last_name, id)
+--
+-- GET /api/customers/page seeks to the row after the previous page's last one, and
+-- GET /api/customers streams in that order ... with this index both read it in order
+-- instead of sorting the whole table.
+--
+
+ALTER TABLE `customer`
+  ADD INDEX `idx_customer_last_name_id` (`last_name`, `id`);
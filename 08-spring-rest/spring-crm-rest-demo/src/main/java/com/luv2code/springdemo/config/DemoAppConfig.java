@@ -1,6 +1,8 @@
 package com.luv2code.springdemo.config;
 
 import java.beans.PropertyVetoException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -11,19 +13,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableMBeanExport;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.core.env.Environment;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import org.springframework.orm.hibernate5.HibernateTransactionManager;
 import org.springframework.orm.hibernate5.LocalSessionFactoryBean;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.luv2code.springdemo.datasource.C3p0ConnectionPool;
+import com.luv2code.springdemo.datasource.ConnectionPool;
+import com.luv2code.springdemo.datasource.HikariConnectionPool;
+import com.luv2code.springdemo.datasource.InstrumentedDataSource;
+import com.luv2code.springdemo.datasource.ReplicaRoutingDataSource;
+import com.luv2code.springdemo.protobuf.CustomerProtobufHttpMessageConverter;
 import com.mchange.v2.c3p0.ComboPooledDataSource;
+import com.zaxxer.hikari.HikariDataSource;
 
 @Configuration
 @EnableWebMvc
 @EnableTransactionManagement
+@EnableMBeanExport
 @ComponentScan("com.luv2code.springdemo")
 @PropertySource({ "classpath:persistence-mysql.properties" })
 public class DemoAppConfig implements WebMvcConfigurer {
@@ -33,8 +46,108 @@ public class DemoAppConfig implements WebMvcConfigurer {
 	
 	private Logger logger = Logger.getLogger(getClass().getName());
 	
+	// binary formats for service-to-service callers, picked with the Accept / Content-Type header:
+	//
+	//   application/json          unchanged, still the default
+	//   application/x-jackson-smile
+	//   application/cbor
+	//   application/x-protobuf    see src/main/proto/customer.proto
+	//
+	// Spring MVC registers the Smile and CBOR converters itself once jackson-dataformat-smile/cbor are
+	// on the classpath, right after JSON. Protobuf is appended at the end here, so a request without
+	// an Accept header (or */*) keeps getting JSON.
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new CustomerProtobufHttpMessageConverter());
+	}
+	
 	@Bean
-	public DataSource myDataSource() {
+	public InstrumentedDataSource myDataSource() {
+		
+		// for sanity's sake, let's log url and user ... just to make sure we are reading the data
+		logger.info("jdbc.url=" + env.getProperty("jdbc.url"));
+		logger.info("jdbc.user=" + env.getProperty("jdbc.user"));
+		
+		// pick the pool implementation: c3p0 (default) or hikari
+		String poolType = env.getProperty("connection.pool.type", "c3p0");
+		
+		logger.info("connection.pool.type=" + poolType);
+		
+		ConnectionPool pool;
+		
+		if (poolType.equals("c3p0")) {
+			pool = new C3p0ConnectionPool(c3p0DataSource(env.getProperty("jdbc.url")));
+		}
+		else if (poolType.equals("hikari")) {
+			pool = new HikariConnectionPool(hikariDataSource(env.getProperty("jdbc.url")));
+		}
+		else {
+			throw new IllegalStateException("Unknown connection.pool.type: " + poolType);
+		}
+		
+		// wrap the pool to collect wait times, counts, leaks and statement cache hits
+		InstrumentedDataSource myDataSource = new InstrumentedDataSource(pool);
+		
+		myDataSource.setStatementCacheSize(getIntProperty("connection.pool.statementCacheSize"));
+		myDataSource.setLeakDetectionThresholdMillis(getIntProperty("connection.pool.leakDetectionThresholdMillis"));
+		myDataSource.setLeakDetectionCaptureStack(env.getProperty("connection.pool.leakDetectionCaptureStack", Boolean.class, true));
+		
+		myDataSource.setAdaptiveSizing(env.getProperty("connection.pool.adaptive.enabled", Boolean.class, false));
+		myDataSource.setAdaptiveIntervalSeconds(getIntProperty("connection.pool.adaptive.intervalSeconds"));
+		myDataSource.setAdaptiveMaxPoolSize(getIntProperty("connection.pool.adaptive.maxPoolSize"));
+		myDataSource.setAdaptiveGrowWaitMillis(env.getProperty("connection.pool.adaptive.growWaitMillis", Double.class));
+		myDataSource.setAdaptiveShrinkWaitMillis(env.getProperty("connection.pool.adaptive.shrinkWaitMillis", Double.class));
+		myDataSource.setAdaptiveStep(getIntProperty("connection.pool.adaptive.step"));
+		
+		return myDataSource;
+	}
+	
+	@Bean
+	public ReplicaRoutingDataSource routingDataSource() {
+		
+		// read replicas for @Transactional(readOnly = true) ... none configured means everything goes to myDataSource
+		List<DataSource> replicas = new ArrayList<>();
+		
+		for (String replicaUrl : env.getProperty("jdbc.replica.urls", String[].class, new String[0])) {
+			
+			logger.info("jdbc.replica.url=" + replicaUrl);
+			
+			// same pool type and settings as the primary ... except a short wait for a connection,
+			// a dead replica should be noticed in a second or two, not after the pool's 30s default
+			int timeoutMillis = getIntProperty("jdbc.replica.connectTimeoutMillis");
+			
+			if (env.getProperty("connection.pool.type", "c3p0").equals("hikari")) {
+				
+				HikariDataSource replica = hikariDataSource(replicaUrl);
+				
+				replica.setConnectionTimeout(timeoutMillis);
+				replica.addDataSourceProperty("connectTimeout", String.valueOf(timeoutMillis));
+				
+				replicas.add(replica);
+			}
+			else {
+				
+				ComboPooledDataSource replica = c3p0DataSource(replicaUrl);
+				
+				replica.setCheckoutTimeout(timeoutMillis);
+				replica.setAcquireRetryAttempts(1);
+				
+				replicas.add(replica);
+			}
+		}
+		
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(myDataSource(), replicas);
+		
+		routingDataSource.setMaxLagSeconds(getIntProperty("jdbc.replica.maxLagSeconds"));
+		routingDataSource.setLagCheckIntervalSeconds(getIntProperty("jdbc.replica.lagCheckIntervalSeconds"));
+		routingDataSource.setLagQuery(env.getProperty("jdbc.replica.lagQuery"));
+		routingDataSource.setLagColumn(env.getProperty("jdbc.replica.lagColumn"));
+		routingDataSource.setCheckTimeoutSeconds(getIntProperty("jdbc.replica.checkTimeoutSeconds"));
+		
+		return routingDataSource;
+	}
+	
+	private ComboPooledDataSource c3p0DataSource(String jdbcUrl) {
 		
 		// create connection pool
 		ComboPooledDataSource myDataSource = new ComboPooledDataSource();
@@ -47,12 +160,8 @@ public class DemoAppConfig implements WebMvcConfigurer {
 			throw new RuntimeException(exc);
 		}
 		
-		// for sanity's sake, let's log url and user ... just to make sure we are reading the data
-		logger.info("jdbc.url=" + env.getProperty("jdbc.url"));
-		logger.info("jdbc.user=" + env.getProperty("jdbc.user"));
-		
 		// set database connection props
-		myDataSource.setJdbcUrl(env.getProperty("jdbc.url"));
+		myDataSource.setJdbcUrl(jdbcUrl);
 		myDataSource.setUser(env.getProperty("jdbc.user"));
 		myDataSource.setPassword(env.getProperty("jdbc.password"));
 		
@@ -61,10 +170,37 @@ public class DemoAppConfig implements WebMvcConfigurer {
 		myDataSource.setMinPoolSize(getIntProperty("connection.pool.minPoolSize"));
 		myDataSource.setMaxPoolSize(getIntProperty("connection.pool.maxPoolSize"));		
 		myDataSource.setMaxIdleTime(getIntProperty("connection.pool.maxIdleTime"));
+		myDataSource.setMaxStatementsPerConnection(getIntProperty("connection.pool.statementCacheSize"));
 
 		return myDataSource;
 	}
 	
+	private HikariDataSource hikariDataSource(String jdbcUrl) {
+		
+		// create connection pool
+		HikariDataSource myDataSource = new HikariDataSource();
+		
+		// set the jdbc driver
+		myDataSource.setDriverClassName("com.mysql.jdbc.Driver");
+		
+		// set database connection props
+		myDataSource.setJdbcUrl(jdbcUrl);
+		myDataSource.setUsername(env.getProperty("jdbc.user"));
+		myDataSource.setPassword(env.getProperty("jdbc.password"));
+		
+		// set connection pool props ... hikari has no initial size, it fills up to minimumIdle
+		myDataSource.setMinimumIdle(getIntProperty("connection.pool.minPoolSize"));
+		myDataSource.setMaximumPoolSize(getIntProperty("connection.pool.maxPoolSize"));
+		myDataSource.setIdleTimeout(getIntProperty("connection.pool.maxIdleTime") * 1000L);
+		
+		// hikari leaves statement caching to the driver
+		myDataSource.addDataSourceProperty("cachePrepStmts", "true");
+		myDataSource.addDataSourceProperty("prepStmtCacheSize", env.getProperty("connection.pool.statementCacheSize"));
+		myDataSource.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+		
+		return myDataSource;
+	}
+	
 	private Properties getHibernateProperties() {
 
 		// set hibernate properties
@@ -72,6 +208,9 @@ public class DemoAppConfig implements WebMvcConfigurer {
 
 		props.setProperty("hibernate.dialect", env.getProperty("hibernate.dialect"));
 		props.setProperty("hibernate.show_sql", env.getProperty("hibernate.show_sql"));
+		props.setProperty("hibernate.jdbc.batch_size", env.getProperty("hibernate.jdbc.batch_size"));
+		props.setProperty("hibernate.order_inserts", env.getProperty("hibernate.order_inserts"));
+		props.setProperty("hibernate.order_updates", env.getProperty("hibernate.order_updates"));
 		
 		return props;				
 	}
@@ -97,7 +236,8 @@ public class DemoAppConfig implements WebMvcConfigurer {
 		LocalSessionFactoryBean sessionFactory = new LocalSessionFactoryBean();
 		
 		// set the properties
-		sessionFactory.setDataSource(myDataSource());
+		// routing picks primary or replica when the first statement runs, by then the transaction is marked read-only or not
+		sessionFactory.setDataSource(new LazyConnectionDataSourceProxy(routingDataSource()));
 		sessionFactory.setPackagesToScan(env.getProperty("hibernate.packagesToScan"));
 		sessionFactory.setHibernateProperties(getHibernateProperties());
 		
@@ -109,7 +249,7 @@ public class DemoAppConfig implements WebMvcConfigurer {
 	public HibernateTransactionManager transactionManager(SessionFactory sessionFactory) {
 		
 		// setup transaction manager based on session factory
-		HibernateTransactionManager txManager = new HibernateTransactionManager();
+		HibernateTransactionManager txManager = new ReadOnlyHibernateTransactionManager();
 		txManager.setSessionFactory(sessionFactory);
 
 		return txManager;
@@ -0,0 +1,26 @@
+package com.luv2code.springdemo.config;
+
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.springframework.orm.hibernate5.HibernateTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+// for @Transactional(readOnly = true): never flush, and load entities read-only so Hibernate
+// doesn't keep a snapshot of each one for dirty checking
+public class ReadOnlyHibernateTransactionManager extends HibernateTransactionManager {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected void doBegin(Object transaction, TransactionDefinition definition) {
+		
+		super.doBegin(transaction, definition);
+		
+		if (definition.isReadOnly()) {
+			Session session = getSessionFactory().getCurrentSession();
+			session.setHibernateFlushMode(FlushMode.MANUAL);
+			session.setDefaultReadOnly(true);
+		}
+	}
+	
+}
@@ -1,6 +1,7 @@
 package com.luv2code.springdemo.dao;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.luv2code.springdemo.entity.Customer;
 
@@ -8,10 +9,19 @@ public interface CustomerDAO {
 
 	public List<Customer> getCustomers();
 
+	// next customers after (afterLastName, afterId) in (lastName, id) order, nulls first ... (null, 0) for the first page
+	public List<Customer> getCustomers(String afterLastName, int afterId, int maxResults);
+
+	public void streamCustomers(Consumer<Customer> theConsumer);
+
 	public void saveCustomer(Customer theCustomer);
 
+	public void saveCustomers(List<Customer> theCustomers);
+
 	public Customer getCustomer(int theId);
 
-	public void deleteCustomer(int theId);
+	public int deleteCustomer(int theId);
+
+	public int deleteCustomer(int theId, int theVersion);
 	
 }
@@ -1,7 +1,11 @@
 package com.luv2code.springdemo.dao;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
@@ -13,6 +17,12 @@ import com.luv2code.springdemo.entity.Customer;
 @Repository
 public class CustomerDAOImpl implements CustomerDAO {
 
+	// rows between session clears while scrolling ... keeps the persistence context small
+	private static final int STREAM_CLEAR_INTERVAL = 500;
+
+	// keep in sync with hibernate.jdbc.batch_size so every flush sends full JDBC batches
+	private static final int BATCH_SIZE = 50;
+
 	// need to inject the session factory
 	@Autowired
 	private SessionFactory sessionFactory;
@@ -35,6 +45,90 @@ public class CustomerDAOImpl implements CustomerDAO {
 		return customers;
 	}
 
+	@Override
+	public List<Customer> getCustomers(String afterLastName, int afterId, int maxResults) {
+
+		// get the current hibernate session
+		Session currentSession = sessionFactory.getCurrentSession();
+
+		// seek past the last row of the previous page ... (lastName, id) keeps the order stable
+		// for duplicate last names and lets the database use an index instead of OFFSET
+		//
+		// last_name is nullable, and "lastName > :lastName" is never true for a null ... so customers
+		// without a last name come first, by id, and a cursor sitting on one of them keeps walking
+		// through the rest of them before moving on to everyone else.
+		// (null, 0) is before every row, which is how the first page is asked for
+		//
+		// that's two seeks, not one OR: the rest of the cursor's own last name, then the last names after it.
+		// each one is a single range on the (last_name, id) index already in order ... no "nulls first"
+		// either, MySQL sorts NULLs first anyway and spelling it out turns the ORDER BY into a filesort
+		Query<Customer> sameLastName;
+		Query<Customer> laterLastNames;
+
+		if (afterLastName == null) {
+			sameLastName = currentSession.createQuery(
+							"from Customer where lastName is null and id > :id order by id", Customer.class);
+
+			laterLastNames = currentSession.createQuery(
+							"from Customer where lastName is not null order by lastName, id", Customer.class);
+		}
+		else {
+			sameLastName = currentSession.createQuery(
+							"from Customer where lastName = :lastName and id > :id order by id", Customer.class);
+			sameLastName.setParameter("lastName", afterLastName);
+
+			laterLastNames = currentSession.createQuery(
+							"from Customer where lastName > :lastName order by lastName, id", Customer.class);
+			laterLastNames.setParameter("lastName", afterLastName);
+		}
+
+		sameLastName.setParameter("id", afterId);
+		sameLastName.setMaxResults(maxResults);
+		sameLastName.setReadOnly(true);
+
+		List<Customer> customers = new ArrayList<>(sameLastName.getResultList());
+
+		// the page is only full after the first seek when lots of customers share that last name
+		if (customers.size() < maxResults) {
+			laterLastNames.setMaxResults(maxResults - customers.size());
+			laterLastNames.setReadOnly(true);
+
+			customers.addAll(laterLastNames.getResultList());
+		}
+
+		return customers;
+	}
+
+	@Override
+	public void streamCustomers(Consumer<Customer> theConsumer) {
+
+		// get the current hibernate session
+		Session currentSession = sessionFactory.getCurrentSession();
+
+		Query<Customer> theQuery = 
+				currentSession.createQuery("from Customer order by lastName, id",
+											Customer.class);
+
+		// Integer.MIN_VALUE tells the MySQL driver to stream rows instead of buffering the result set
+		theQuery.setFetchSize(Integer.MIN_VALUE);
+		theQuery.setReadOnly(true);
+
+		try (ScrollableResults results = theQuery.scroll(ScrollMode.FORWARD_ONLY)) {
+
+			int count = 0;
+
+			while (results.next()) {
+
+				theConsumer.accept((Customer) results.get(0));
+
+				// detach what we have already written so memory stays flat
+				if (++count % STREAM_CLEAR_INTERVAL == 0) {
+					currentSession.clear();
+				}
+			}
+		}
+	}
+
 	@Override
 	public void saveCustomer(Customer theCustomer) {
 
@@ -46,6 +140,25 @@ public class CustomerDAOImpl implements CustomerDAO {
 		
 	}
 
+	@Override
+	public void saveCustomers(List<Customer> theCustomers) {
+
+		// get current hibernate session
+		Session currentSession = sessionFactory.getCurrentSession();
+		
+		for (int i = 0; i < theCustomers.size(); i++) {
+			
+			currentSession.saveOrUpdate(theCustomers.get(i));
+			
+			// push each chunk to the database and drop it from the session
+			if ((i + 1) % BATCH_SIZE == 0) {
+				currentSession.flush();
+				currentSession.clear();
+			}
+		}
+		
+	}
+
 	@Override
 	public Customer getCustomer(int theId) {
 
@@ -59,7 +172,7 @@ public class CustomerDAOImpl implements CustomerDAO {
 	}
 
 	@Override
-	public void deleteCustomer(int theId) {
+	public int deleteCustomer(int theId) {
 
 		// get the current hibernate session
 		Session currentSession = sessionFactory.getCurrentSession();
@@ -69,7 +182,23 @@ public class CustomerDAOImpl implements CustomerDAO {
 				currentSession.createQuery("delete from Customer where id=:customerId");
 		theQuery.setParameter("customerId", theId);
 		
-		theQuery.executeUpdate();		
+		// rows deleted ... 0 means there was no such customer
+		return theQuery.executeUpdate();		
+	}
+
+	@Override
+	public int deleteCustomer(int theId, int theVersion) {
+
+		// get the current hibernate session
+		Session currentSession = sessionFactory.getCurrentSession();
+		
+		// only delete the version the caller saw ... 0 rows means it's gone or someone changed it
+		Query theQuery = 
+				currentSession.createQuery("delete from Customer where id=:customerId and version=:version");
+		theQuery.setParameter("customerId", theId);
+		theQuery.setParameter("version", theVersion);
+		
+		return theQuery.executeUpdate();
 	}
 
 }
@@ -0,0 +1,107 @@
+package com.luv2code.springdemo.datasource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// fixed-bucket histogram of how long getConnection() waited ... cheap enough to record on every call
+public class AcquireWaitHistogram {
+
+	// bucket upper bounds in microseconds ... the last bucket catches everything slower
+	private static final long[] BOUNDS_MICROS = {
+			50, 100, 250, 500, 
+			1_000, 2_500, 5_000, 10_000, 25_000, 50_000, 
+			100_000, 250_000, 500_000, 1_000_000, 5_000_000, Long.MAX_VALUE };
+	
+	private final AtomicLongArray counts = new AtomicLongArray(BOUNDS_MICROS.length);
+	
+	public void record(long waitNanos) {
+		
+		long micros = TimeUnit.NANOSECONDS.toMicros(waitNanos);
+		
+		int bucket = 0;
+		
+		while (micros > BOUNDS_MICROS[bucket]) {
+			bucket++;
+		}
+		
+		counts.incrementAndGet(bucket);
+	}
+	
+	public long getCount() {
+		
+		long total = 0;
+		
+		for (int i = 0; i < counts.length(); i++) {
+			total += counts.get(i);
+		}
+		
+		return total;
+	}
+	
+	// upper bound of the bucket holding the given percentile, in millis ... 0 if nothing recorded
+	public double getPercentileMillis(double percentile) {
+		
+		long total = getCount();
+		
+		if (total == 0) {
+			return 0;
+		}
+		
+		long rank = (long) Math.ceil(total * percentile / 100.0);
+		long seen = 0;
+		
+		for (int i = 0; i < counts.length(); i++) {
+			
+			seen += counts.get(i);
+			
+			if (seen >= rank) {
+				return boundMillis(i);
+			}
+		}
+		
+		return boundMillis(BOUNDS_MICROS.length - 1);
+	}
+	
+	// "<=0.05ms=12, <=0.1ms=3, ..." skipping empty buckets
+	public String getBuckets() {
+		
+		StringBuilder result = new StringBuilder();
+		
+		for (int i = 0; i < counts.length(); i++) {
+			
+			long count = counts.get(i);
+			
+			if (count == 0) {
+				continue;
+			}
+			
+			if (result.length() > 0) {
+				result.append(", ");
+			}
+			
+			if (BOUNDS_MICROS[i] == Long.MAX_VALUE) {
+				result.append(">").append(boundMillis(i - 1)).append("ms=").append(count);
+			}
+			else {
+				result.append("<=").append(boundMillis(i)).append("ms=").append(count);
+			}
+		}
+		
+		return result.toString();
+	}
+	
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++) {
+			counts.set(i, 0);
+		}
+	}
+	
+	private static double boundMillis(int bucket) {
+		
+		// report the overflow bucket as the last finite bound
+		long micros = (BOUNDS_MICROS[bucket] == Long.MAX_VALUE) ? BOUNDS_MICROS[bucket - 1] : BOUNDS_MICROS[bucket];
+		
+		return micros / 1000.0;
+	}
+	
+}
@@ -0,0 +1,73 @@
+package com.luv2code.springdemo.datasource;
+
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import com.mchange.v2.c3p0.ComboPooledDataSource;
+
+// not a ResizableConnectionPool ... c3p0 soft-resets the whole pool when a config property changes after startup
+public class C3p0ConnectionPool implements ConnectionPool {
+
+	private final ComboPooledDataSource dataSource;
+	
+	public C3p0ConnectionPool(ComboPooledDataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public String getName() {
+		return "c3p0";
+	}
+
+	@Override
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	@Override
+	public int getActiveConnections() {
+		try {
+			return dataSource.getNumBusyConnectionsDefaultUser();
+		}
+		catch (SQLException exc) {
+			return -1;
+		}
+	}
+
+	@Override
+	public int getIdleConnections() {
+		try {
+			return dataSource.getNumIdleConnectionsDefaultUser();
+		}
+		catch (SQLException exc) {
+			return -1;
+		}
+	}
+
+	@Override
+	public int getThreadsAwaitingConnection() {
+		try {
+			return dataSource.getNumThreadsAwaitingCheckoutDefaultUser();
+		}
+		catch (SQLException exc) {
+			return -1;
+		}
+	}
+
+	@Override
+	public int getMinPoolSize() {
+		return dataSource.getMinPoolSize();
+	}
+
+	@Override
+	public int getMaxPoolSize() {
+		return dataSource.getMaxPoolSize();
+	}
+
+	@Override
+	public void close() {
+		dataSource.close();
+	}
+
+}
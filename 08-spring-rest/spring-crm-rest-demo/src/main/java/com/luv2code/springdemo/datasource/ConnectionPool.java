@@ -0,0 +1,24 @@
+package com.luv2code.springdemo.datasource;
+
+import javax.sql.DataSource;
+
+// the bits of a connection pool that InstrumentedDataSource needs ... one implementation per pool library
+public interface ConnectionPool {
+
+	public String getName();
+	
+	public DataSource getDataSource();
+	
+	public int getActiveConnections();
+	
+	public int getIdleConnections();
+	
+	public int getThreadsAwaitingConnection();
+	
+	public int getMinPoolSize();
+	
+	public int getMaxPoolSize();
+	
+	public void close();
+	
+}
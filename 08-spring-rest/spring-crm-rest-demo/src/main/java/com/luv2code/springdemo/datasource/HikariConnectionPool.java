@@ -0,0 +1,66 @@
+package com.luv2code.springdemo.datasource;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+public class HikariConnectionPool implements ResizableConnectionPool {
+
+	private final HikariDataSource dataSource;
+	
+	public HikariConnectionPool(HikariDataSource dataSource) {
+		this.dataSource = dataSource;
+	}
+
+	@Override
+	public String getName() {
+		return "hikari";
+	}
+
+	@Override
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	// the pool MXBean is null until the first connection is requested
+	
+	@Override
+	public int getActiveConnections() {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return (pool != null) ? pool.getActiveConnections() : 0;
+	}
+
+	@Override
+	public int getIdleConnections() {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return (pool != null) ? pool.getIdleConnections() : 0;
+	}
+
+	@Override
+	public int getThreadsAwaitingConnection() {
+		HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+		return (pool != null) ? pool.getThreadsAwaitingConnection() : 0;
+	}
+
+	@Override
+	public int getMinPoolSize() {
+		return dataSource.getMinimumIdle();
+	}
+
+	@Override
+	public int getMaxPoolSize() {
+		return dataSource.getMaximumPoolSize();
+	}
+
+	@Override
+	public void setMaxPoolSize(int maxPoolSize) {
+		dataSource.getHikariConfigMXBean().setMaximumPoolSize(maxPoolSize);
+	}
+
+	@Override
+	public void close() {
+		dataSource.close();
+	}
+
+}
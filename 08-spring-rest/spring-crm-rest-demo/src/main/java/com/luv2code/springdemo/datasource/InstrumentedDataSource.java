@@ -0,0 +1,546 @@
+package com.luv2code.springdemo.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+
+import com.mysql.cj.jdbc.JdbcConnection;
+
+/**
+ * Wraps the real connection pool and records what it's doing, so we can tell pool waits from MySQL time:
+ * 
+ *  - acquire-wait histogram for every getConnection()
+ *  - active / idle / waiting counts straight from the pool
+ *  - leak detection ... connections held longer than a threshold are logged with the borrower's stack
+ *  - estimated prepared statement cache hit rate per physical connection ... see StatementCacheStats
+ *  - optional adaptive sizing ... grows the pool while callers wait, shrinks it again when they don't
+ *  
+ * Everything is exported over JMX as com.luv2code.springdemo:type=ConnectionPool.
+ */
+@ManagedResource(objectName = "com.luv2code.springdemo:type=ConnectionPool")
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+	private Logger logger = Logger.getLogger(getClass().getName());
+	
+	private final ConnectionPool pool;
+	
+	private final AcquireWaitHistogram acquireWaits = new AcquireWaitHistogram();
+	private final AtomicLong acquireFailures = new AtomicLong();
+	
+	// only the waits since the last adaptive sizing check
+	private final AcquireWaitHistogram recentAcquireWaits = new AcquireWaitHistogram();
+	private final AtomicInteger recentPeakActive = new AtomicInteger();
+	
+	private final Map<Connection, Borrow> borrowed = new ConcurrentHashMap<>();
+	
+	// keyed by the driver's connection ... weak so connections the pool retires can be collected
+	private final Map<Object, StatementCacheStats> statementCaches = Collections.synchronizedMap(new WeakHashMap<>());
+	
+	private long leakDetectionThresholdMillis;
+	private boolean leakDetectionCaptureStack = true;
+	private int statementCacheSize;
+	
+	private boolean adaptiveSizing;
+	private int adaptiveIntervalSeconds = 10;
+	private int adaptiveMinPoolSize;
+	private int adaptiveMaxPoolSize;
+	private double adaptiveGrowWaitMillis = 20;
+	private double adaptiveShrinkWaitMillis = 1;
+	private int adaptiveStep = 2;
+	
+	private ScheduledExecutorService scheduler;
+	
+	public InstrumentedDataSource(ConnectionPool pool) {
+		super(pool.getDataSource());
+		this.pool = pool;
+	}
+
+	// 0 turns leak detection off
+	public void setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+		this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+	}
+
+	public void setLeakDetectionCaptureStack(boolean leakDetectionCaptureStack) {
+		this.leakDetectionCaptureStack = leakDetectionCaptureStack;
+	}
+
+	// should match the statement cache size configured on the pool / driver
+	public void setStatementCacheSize(int statementCacheSize) {
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	public void setAdaptiveSizing(boolean adaptiveSizing) {
+		this.adaptiveSizing = adaptiveSizing;
+	}
+
+	public void setAdaptiveIntervalSeconds(int adaptiveIntervalSeconds) {
+		this.adaptiveIntervalSeconds = adaptiveIntervalSeconds;
+	}
+
+	public void setAdaptiveMaxPoolSize(int adaptiveMaxPoolSize) {
+		this.adaptiveMaxPoolSize = adaptiveMaxPoolSize;
+	}
+
+	public void setAdaptiveGrowWaitMillis(double adaptiveGrowWaitMillis) {
+		this.adaptiveGrowWaitMillis = adaptiveGrowWaitMillis;
+	}
+
+	public void setAdaptiveShrinkWaitMillis(double adaptiveShrinkWaitMillis) {
+		this.adaptiveShrinkWaitMillis = adaptiveShrinkWaitMillis;
+	}
+
+	public void setAdaptiveStep(int adaptiveStep) {
+		this.adaptiveStep = adaptiveStep;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		
+		super.afterPropertiesSet();
+		
+		if (adaptiveSizing && !(pool instanceof ResizableConnectionPool)) {
+			logger.warning("Adaptive pool sizing is not supported by the " + pool.getName() 
+							+ " pool ... keeping maxPoolSize=" + pool.getMaxPoolSize());
+			adaptiveSizing = false;
+		}
+		
+		if (leakDetectionThresholdMillis <= 0 && !adaptiveSizing) {
+			return;
+		}
+		
+		scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "connection-pool-monitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		if (leakDetectionThresholdMillis > 0) {
+			long period = Math.max(1000, leakDetectionThresholdMillis / 2);
+			scheduler.scheduleWithFixedDelay(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+		}
+		
+		if (adaptiveSizing) {
+			
+			// never shrink below where we started
+			adaptiveMinPoolSize = pool.getMaxPoolSize();
+			adaptiveMaxPoolSize = Math.max(adaptiveMaxPoolSize, adaptiveMinPoolSize);
+			
+			logger.info("Adaptive pool sizing on: maxPoolSize between " + adaptiveMinPoolSize + " and " + adaptiveMaxPoolSize);
+			
+			scheduler.scheduleWithFixedDelay(this::resizePool, adaptiveIntervalSeconds, adaptiveIntervalSeconds, TimeUnit.SECONDS);
+		}
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		return acquire(null, null);
+	}
+	
+	// straight through to the pool, instrumented the same way ... c3p0 keeps a separate pool per user,
+	// Hikari doesn't support it and throws SQLFeatureNotSupportedException
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return acquire(username, password);
+	}
+	
+	private Connection acquire(String username, String password) throws SQLException {
+		
+		long start = System.nanoTime();
+		
+		Connection connection;
+		
+		try {
+			connection = (username == null) ? super.getConnection() : super.getConnection(username, password);
+		}
+		catch (SQLException | RuntimeException exc) {
+			acquireFailures.incrementAndGet();
+			throw exc;
+		}
+		finally {
+			long waitNanos = System.nanoTime() - start;
+			acquireWaits.record(waitNanos);
+			recentAcquireWaits.record(waitNanos);
+		}
+		
+		// only resizePool reads this ... and asking some pools (c3p0) for the count takes the pool's lock
+		if (adaptiveSizing) {
+			recentPeakActive.accumulateAndGet(pool.getActiveConnections(), Math::max);
+		}
+		
+		return track(connection);
+	}
+	
+	public void close() {
+		
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+		}
+		
+		pool.close();
+	}
+	
+	private Connection track(Connection connection) {
+		
+		ConnectionHandler handler = new ConnectionHandler(connection, physicalConnection(connection));
+		
+		Connection proxy = (Connection) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class<?>[] { Connection.class }, handler);
+		
+		if (leakDetectionThresholdMillis > 0) {
+			
+			Thread borrower = Thread.currentThread();
+			Throwable stack = leakDetectionCaptureStack ? new Throwable("Connection borrowed here") : null;
+			
+			borrowed.put(proxy, new Borrow(borrower.getName(), System.currentTimeMillis(), stack));
+			handler.proxy = proxy;
+		}
+		
+		return proxy;
+	}
+	
+	// both pools hand out a new wrapper per checkout ... the driver's connection underneath is what's reused
+	private static Object physicalConnection(Connection connection) {
+		
+		try {
+			if (connection.isWrapperFor(JdbcConnection.class)) {
+				return connection.unwrap(JdbcConnection.class);
+			}
+		}
+		catch (SQLException exc) {
+			// fall through and use the wrapper
+		}
+		
+		return connection;
+	}
+	
+	private void detectLeaks() {
+		
+		long now = System.currentTimeMillis();
+		
+		for (Borrow borrow : borrowed.values()) {
+			
+			long heldMillis = now - borrow.borrowedAt;
+			
+			if (heldMillis < leakDetectionThresholdMillis || borrow.reported) {
+				continue;
+			}
+			
+			borrow.reported = true;
+			
+			String message = "Possible connection leak: held for " + heldMillis + " ms by thread " + borrow.threadName;
+			
+			if (borrow.stack != null) {
+				logger.log(Level.WARNING, message, borrow.stack);
+			}
+			else {
+				logger.warning(message);
+			}
+		}
+	}
+	
+	private void resizePool() {
+		
+		try {
+			double p95 = recentAcquireWaits.getPercentileMillis(95);
+			long acquires = recentAcquireWaits.getCount();
+			int peakActive = recentPeakActive.getAndSet(pool.getActiveConnections());
+			int waiting = pool.getThreadsAwaitingConnection();
+			
+			recentAcquireWaits.reset();
+			
+			int current = pool.getMaxPoolSize();
+			int target = current;
+			
+			if (acquires > 0 && (p95 > adaptiveGrowWaitMillis || waiting > 0)) {
+				
+				// callers are queueing for connections
+				target = Math.min(adaptiveMaxPoolSize, current + adaptiveStep);
+			}
+			else if (p95 <= adaptiveShrinkWaitMillis && peakActive <= current - 2 * adaptiveStep) {
+				
+				// nobody waited and we never came close to the limit
+				target = Math.max(adaptiveMinPoolSize, current - adaptiveStep);
+			}
+			
+			if (target != current) {
+				
+				logger.info("Resizing connection pool: maxPoolSize " + current + " -> " + target 
+								+ " (p95 wait=" + p95 + " ms, peak active=" + peakActive + ", waiting=" + waiting + ")");
+				
+				((ResizableConnectionPool) pool).setMaxPoolSize(target);
+			}
+		}
+		catch (RuntimeException exc) {
+			logger.log(Level.WARNING, "Adaptive pool sizing failed", exc);
+		}
+	}
+	
+	
+	// JMX attributes
+	
+	@ManagedAttribute
+	public String getPoolType() {
+		return pool.getName();
+	}
+	
+	@ManagedAttribute
+	public int getActiveConnections() {
+		return pool.getActiveConnections();
+	}
+
+	@ManagedAttribute
+	public int getIdleConnections() {
+		return pool.getIdleConnections();
+	}
+
+	@ManagedAttribute
+	public int getThreadsAwaitingConnection() {
+		return pool.getThreadsAwaitingConnection();
+	}
+
+	@ManagedAttribute
+	public int getMinPoolSize() {
+		return pool.getMinPoolSize();
+	}
+
+	@ManagedAttribute
+	public int getMaxPoolSize() {
+		return pool.getMaxPoolSize();
+	}
+	
+	@ManagedAttribute
+	public long getAcquireCount() {
+		return acquireWaits.getCount();
+	}
+	
+	@ManagedAttribute
+	public long getAcquireFailures() {
+		return acquireFailures.get();
+	}
+	
+	@ManagedAttribute
+	public double getAcquireWaitP50Millis() {
+		return acquireWaits.getPercentileMillis(50);
+	}
+
+	@ManagedAttribute
+	public double getAcquireWaitP95Millis() {
+		return acquireWaits.getPercentileMillis(95);
+	}
+
+	@ManagedAttribute
+	public double getAcquireWaitP99Millis() {
+		return acquireWaits.getPercentileMillis(99);
+	}
+	
+	@ManagedAttribute
+	public String getAcquireWaitHistogram() {
+		return acquireWaits.getBuckets();
+	}
+	
+	@ManagedAttribute
+	public int getBorrowedConnections() {
+		return borrowed.size();
+	}
+	
+	@ManagedAttribute
+	public int getSuspectedLeaks() {
+		
+		long now = System.currentTimeMillis();
+		int count = 0;
+		
+		for (Borrow borrow : borrowed.values()) {
+			if (now - borrow.borrowedAt >= leakDetectionThresholdMillis) {
+				count++;
+			}
+		}
+		
+		return (leakDetectionThresholdMillis > 0) ? count : 0;
+	}
+	
+	// neither c3p0 nor the MySQL driver report statement cache hits, so these come from the LRU we keep
+	// alongside ... an estimate, it can disagree with what the pool actually kept (see StatementCacheStats)
+	@ManagedAttribute(description = "Estimated prepared statement cache hit rate, simulated from the configured cache size")
+	public double getEstimatedStatementCacheHitRate() {
+		
+		long hits = 0;
+		long lookups = 0;
+		
+		for (StatementCacheStats stats : statementCacheSnapshot()) {
+			hits += stats.hits;
+			lookups += stats.hits + stats.misses;
+		}
+		
+		return (lookups > 0) ? (double) hits / lookups : 0;
+	}
+	
+	// one line per physical connection: "connection@1a2b3c hits=.. misses=.. hitRate=.."
+	@ManagedAttribute(description = "Estimated prepared statement cache hits per physical connection")
+	public String getEstimatedStatementCacheHitRates() {
+		
+		StringBuilder result = new StringBuilder();
+		
+		for (StatementCacheStats stats : statementCacheSnapshot()) {
+			
+			long lookups = stats.hits + stats.misses;
+			
+			result.append(stats.name)
+				  .append(" hits=").append(stats.hits)
+				  .append(" misses=").append(stats.misses)
+				  .append(" hitRate=").append(String.format("%.3f", (lookups > 0) ? (double) stats.hits / lookups : 0))
+				  .append('\n');
+		}
+		
+		return result.toString();
+	}
+	
+	@ManagedOperation
+	public void resetStatistics() {
+		
+		acquireWaits.reset();
+		acquireFailures.set(0);
+		
+		for (StatementCacheStats stats : statementCacheSnapshot()) {
+			stats.reset();
+		}
+	}
+	
+	private List<StatementCacheStats> statementCacheSnapshot() {
+		synchronized (statementCaches) {
+			return new ArrayList<>(statementCaches.values());
+		}
+	}
+	
+	private StatementCacheStats statementCacheFor(Object physical) {
+		return statementCaches.computeIfAbsent(physical, 
+				key -> new StatementCacheStats("connection@" + Integer.toHexString(System.identityHashCode(key)), statementCacheSize));
+	}
+	
+	
+	// who took a connection and when
+	private static class Borrow {
+		
+		private final String threadName;
+		private final long borrowedAt;
+		private final Throwable stack;
+		private volatile boolean reported;
+		
+		Borrow(String threadName, long borrowedAt, Throwable stack) {
+			this.threadName = threadName;
+			this.borrowedAt = borrowedAt;
+			this.stack = stack;
+		}
+	}
+	
+	// an LRU of the configured size per physical connection, standing in for the pool's / driver's own
+	// statement cache so we can count hits they don't report ... only an estimate: the real cache may
+	// evict differently, be keyed on more than the SQL, or be sized differently than statementCacheSize says
+	private static class StatementCacheStats {
+		
+		private final String name;
+		private final LinkedHashMap<String, Boolean> recent;
+		private volatile long hits;
+		private volatile long misses;
+		
+		StatementCacheStats(String name, int size) {
+			
+			this.name = name;
+			
+			this.recent = new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+				
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+					return size() > size;
+				}
+			};
+		}
+		
+		synchronized void prepared(String sql) {
+			
+			if (recent.put(sql, Boolean.TRUE) != null) {
+				hits++;
+			}
+			else {
+				misses++;
+			}
+		}
+		
+		synchronized void reset() {
+			hits = 0;
+			misses = 0;
+		}
+	}
+	
+	// forwards everything to the pooled connection, watching close() and prepareStatement()/prepareCall()
+	private class ConnectionHandler implements InvocationHandler {
+		
+		private final Connection target;
+		private final Object physical;
+		private volatile Connection proxy;
+		private boolean closed;
+		
+		ConnectionHandler(Connection target, Object physical) {
+			this.target = target;
+			this.physical = physical;
+		}
+
+		@Override
+		public Object invoke(Object theProxy, Method method, Object[] args) throws Throwable {
+			
+			String name = method.getName();
+			
+			if (name.equals("close")) {
+				
+				if (!closed) {
+					closed = true;
+					
+					if (proxy != null) {
+						borrowed.remove(proxy);
+					}
+				}
+			}
+			else if ((name.equals("prepareStatement") || name.equals("prepareCall")) && args != null && args[0] instanceof String) {
+				statementCacheFor(physical).prepared((String) args[0]);
+			}
+			else if (name.equals("equals")) {
+				return theProxy == args[0];
+			}
+			else if (name.equals("hashCode")) {
+				return System.identityHashCode(theProxy);
+			}
+			else if (name.equals("toString")) {
+				return "Instrumented[" + target + "]";
+			}
+			
+			try {
+				return method.invoke(target, args);
+			}
+			catch (InvocationTargetException exc) {
+				throw exc.getTargetException();
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,9 @@
+package com.luv2code.springdemo.datasource;
+
+// a pool whose maximum size can change while it's running, without dropping its connections ...
+// InstrumentedDataSource only does adaptive sizing on one of these
+public interface ResizableConnectionPool extends ConnectionPool {
+
+	public void setMaxPoolSize(int maxPoolSize);
+	
+}
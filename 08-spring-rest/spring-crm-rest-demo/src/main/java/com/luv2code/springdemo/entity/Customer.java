@@ -6,13 +6,19 @@ import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.TableGenerator;
+import javax.persistence.Version;
 
 @Entity
 @Table(name="customer")
 public class Customer {
 
 	@Id
-	@GeneratedValue(strategy=GenerationType.IDENTITY)
+	// IDENTITY would force an insert per row ... a pooled table generator lets Hibernate batch them
+	@GeneratedValue(strategy=GenerationType.TABLE, generator="customer_id_gen")
+	@TableGenerator(name="customer_id_gen", table="id_generator",
+					pkColumnName="gen_name", valueColumnName="gen_value",
+					pkColumnValue="customer", allocationSize=50)
 	@Column(name="id")
 	private int id;
 	
@@ -25,6 +31,12 @@ public class Customer {
 	@Column(name="email")
 	private String email;
 	
+	// optimistic locking ... updates only apply if the row still has this version
+	// null until the customer is saved, and when a client didn't send one
+	@Version
+	@Column(name="version")
+	private Integer version;
+	
 	public Customer() {
 		
 	}
@@ -61,9 +73,18 @@ public class Customer {
 		this.email = email;
 	}
 
+	public Integer getVersion() {
+		return version;
+	}
+
+	public void setVersion(Integer version) {
+		this.version = version;
+	}
+
 	@Override
 	public String toString() {
-		return "Customer [id=" + id + ", firstName=" + firstName + ", lastName=" + lastName + ", email=" + email + "]";
+		return "Customer [id=" + id + ", firstName=" + firstName + ", lastName=" + lastName + ", email=" + email
+				+ ", version=" + version + "]";
 	}
 		
 }
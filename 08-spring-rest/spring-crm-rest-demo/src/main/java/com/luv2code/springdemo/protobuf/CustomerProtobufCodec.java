@@ -0,0 +1,144 @@
+package com.luv2code.springdemo.protobuf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.luv2code.springdemo.entity.Customer;
+
+// reads and writes the messages in src/main/proto/customer.proto straight from/to the entity
+//
+// protobuf-java's coded streams instead of generated classes ... no protoc in the build and
+// no copying into a generated message first. Like proto3, default values (0, null) aren't written.
+public final class CustomerProtobufCodec {
+
+	// Customer
+	private static final int ID = 1;
+	private static final int FIRST_NAME = 2;
+	private static final int LAST_NAME = 3;
+	private static final int EMAIL = 4;
+	private static final int VERSION = 5;
+	
+	// CustomerList
+	private static final int CUSTOMERS = 1;
+	
+	private CustomerProtobufCodec() {
+	}
+	
+	public static void writeCustomer(Customer theCustomer, CodedOutputStream out) throws IOException {
+		
+		if (theCustomer.getId() != 0) {
+			out.writeInt32(ID, theCustomer.getId());
+		}
+		if (theCustomer.getFirstName() != null) {
+			out.writeString(FIRST_NAME, theCustomer.getFirstName());
+		}
+		if (theCustomer.getLastName() != null) {
+			out.writeString(LAST_NAME, theCustomer.getLastName());
+		}
+		if (theCustomer.getEmail() != null) {
+			out.writeString(EMAIL, theCustomer.getEmail());
+		}
+		if (theCustomer.getVersion() != null) {
+			out.writeInt32(VERSION, theCustomer.getVersion());
+		}
+	}
+	
+	public static void writeCustomerList(List<Customer> theCustomers, CodedOutputStream out) throws IOException {
+		
+		for (Customer theCustomer : theCustomers) {
+			writeCustomerListEntry(theCustomer, out);
+		}
+	}
+	
+	// one element of a CustomerList ... lets a caller stream the list without holding it
+	public static void writeCustomerListEntry(Customer theCustomer, CodedOutputStream out) throws IOException {
+		
+		// each element is a length-delimited embedded message
+		out.writeTag(CUSTOMERS, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+		out.writeUInt32NoTag(customerSize(theCustomer));
+		writeCustomer(theCustomer, out);
+	}
+	
+	public static int customerSize(Customer theCustomer) {
+		
+		int size = 0;
+		
+		if (theCustomer.getId() != 0) {
+			size += CodedOutputStream.computeInt32Size(ID, theCustomer.getId());
+		}
+		if (theCustomer.getFirstName() != null) {
+			size += CodedOutputStream.computeStringSize(FIRST_NAME, theCustomer.getFirstName());
+		}
+		if (theCustomer.getLastName() != null) {
+			size += CodedOutputStream.computeStringSize(LAST_NAME, theCustomer.getLastName());
+		}
+		if (theCustomer.getEmail() != null) {
+			size += CodedOutputStream.computeStringSize(EMAIL, theCustomer.getEmail());
+		}
+		if (theCustomer.getVersion() != null) {
+			size += CodedOutputStream.computeInt32Size(VERSION, theCustomer.getVersion());
+		}
+		
+		return size;
+	}
+	
+	// reads until the end of the input (or the current limit, for an embedded message)
+	public static Customer readCustomer(CodedInputStream in) throws IOException {
+		
+		Customer theCustomer = new Customer();
+		
+		int tag;
+		
+		while ((tag = in.readTag()) != 0) {
+			
+			switch (WireFormat.getTagFieldNumber(tag)) {
+				case ID:
+					theCustomer.setId(in.readInt32());
+					break;
+				case FIRST_NAME:
+					theCustomer.setFirstName(in.readString());
+					break;
+				case LAST_NAME:
+					theCustomer.setLastName(in.readString());
+					break;
+				case EMAIL:
+					theCustomer.setEmail(in.readString());
+					break;
+				case VERSION:
+					theCustomer.setVersion(in.readInt32());
+					break;
+				default:
+					// a field from a newer schema ... skip it
+					in.skipField(tag);
+			}
+		}
+		
+		return theCustomer;
+	}
+	
+	public static List<Customer> readCustomerList(CodedInputStream in) throws IOException {
+		
+		List<Customer> theCustomers = new ArrayList<>();
+		
+		int tag;
+		
+		while ((tag = in.readTag()) != 0) {
+			
+			if (WireFormat.getTagFieldNumber(tag) != CUSTOMERS) {
+				in.skipField(tag);
+				continue;
+			}
+			
+			int limit = in.pushLimit(in.readRawVarint32());
+			theCustomers.add(readCustomer(in));
+			in.popLimit(limit);
+		}
+		
+		return theCustomers;
+	}
+	
+}
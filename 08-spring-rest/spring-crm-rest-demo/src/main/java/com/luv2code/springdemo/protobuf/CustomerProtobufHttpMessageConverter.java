@@ -0,0 +1,105 @@
+package com.luv2code.springdemo.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.luv2code.springdemo.entity.Customer;
+
+// application/x-protobuf for a Customer or a List<Customer> ... see customer.proto
+public class CustomerProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+	
+	private static final int BUFFER_SIZE = 8192;
+	
+	public CustomerProtobufHttpMessageConverter() {
+		super(PROTOBUF);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return Customer.class == clazz;
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return (isCustomer(type) || isCustomerList(type)) && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		
+		// no generic type ... only a plain Customer
+		if (type == null) {
+			return canWrite(clazz, mediaType);
+		}
+		
+		return (isCustomer(type) || isCustomerList(type)) && canWrite(mediaType);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object t, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		
+		CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+		
+		if (t instanceof Customer) {
+			CustomerProtobufCodec.writeCustomer((Customer) t, out);
+		}
+		else {
+			CustomerProtobufCodec.writeCustomerList((List<Customer>) t, out);
+		}
+		
+		out.flush();
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		
+		return CustomerProtobufCodec.readCustomer(CodedInputStream.newInstance(inputMessage.getBody()));
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		
+		CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+		
+		if (isCustomerList(type)) {
+			return CustomerProtobufCodec.readCustomerList(in);
+		}
+		
+		return CustomerProtobufCodec.readCustomer(in);
+	}
+	
+	private static boolean isCustomer(Type type) {
+		return type == Customer.class;
+	}
+	
+	// List<Customer>, as the controller declares it
+	private static boolean isCustomerList(Type type) {
+		
+		if (!(type instanceof ParameterizedType)) {
+			return false;
+		}
+		
+		ParameterizedType parameterized = (ParameterizedType) type;
+		
+		return parameterized.getRawType() == List.class
+				&& parameterized.getActualTypeArguments()[0] == Customer.class;
+	}
+	
+}
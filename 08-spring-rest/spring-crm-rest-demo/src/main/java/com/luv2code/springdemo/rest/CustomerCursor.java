@@ -0,0 +1,60 @@
+package com.luv2code.springdemo.rest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.luv2code.springdemo.entity.Customer;
+
+// opaque page token for keyset pagination ... encodes the (lastName, id) of the last row sent
+// a null last name is encoded as just the id, so it can't be mixed up with an empty one
+public class CustomerCursor {
+
+	private final String lastName;
+	private final int id;
+	
+	public CustomerCursor(String lastName, int id) {
+		this.lastName = lastName;
+		this.id = id;
+	}
+
+	public static CustomerCursor from(Customer theCustomer) {
+		return new CustomerCursor(theCustomer.getLastName(), theCustomer.getId());
+	}
+
+	public static CustomerCursor decode(String token) {
+		
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			
+			// id goes first so a last name containing the separator can't confuse the split
+			int separator = raw.indexOf(':');
+			
+			if (separator < 0) {
+				return new CustomerCursor(null, Integer.parseInt(raw));
+			}
+			
+			return new CustomerCursor(raw.substring(separator + 1),
+										Integer.parseInt(raw.substring(0, separator)));
+		}
+		catch (RuntimeException exc) {
+			throw new IllegalArgumentException("Invalid cursor - " + token, exc);
+		}
+	}
+
+	public String encode() {
+		
+		String raw = lastName == null ? String.valueOf(id) : id + ":" + lastName;
+		
+		return Base64.getUrlEncoder().withoutPadding()
+					.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public int getId() {
+		return id;
+	}
+	
+}
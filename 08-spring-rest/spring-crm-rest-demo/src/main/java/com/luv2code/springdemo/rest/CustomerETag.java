@@ -0,0 +1,37 @@
+package com.luv2code.springdemo.rest;
+
+import com.luv2code.springdemo.entity.Customer;
+
+// strong ETag for a single customer ... just its @Version number in quotes, e.g. "3"
+public class CustomerETag {
+
+	private CustomerETag() {
+	}
+
+	public static String of(Customer theCustomer) {
+		return "\"" + theCustomer.getVersion() + "\"";
+	}
+
+	// the version an If-Match header asks for ... null for "*" (whatever version is current)
+	// If-Match uses strong comparison, so a weak W/"3" or anything we didn't hand out can never match
+	public static Integer parseIfMatch(String ifMatch) {
+		
+		String value = ifMatch.trim();
+		
+		if (value.equals("*")) {
+			return null;
+		}
+		
+		if (value.length() > 2 && value.startsWith("\"") && value.endsWith("\"")) {
+			try {
+				return Integer.valueOf(value.substring(1, value.length() - 1));
+			}
+			catch (NumberFormatException exc) {
+				// fall through
+			}
+		}
+		
+		throw new CustomerPreconditionFailedException("If-Match does not match the current customer - " + ifMatch);
+	}
+	
+}
@@ -0,0 +1,37 @@
+package com.luv2code.springdemo.rest;
+
+import java.util.List;
+
+import com.luv2code.springdemo.entity.Customer;
+
+public class CustomerPage {
+
+	private List<Customer> customers;
+	private String nextCursor;
+	
+	public CustomerPage() {
+		
+	}
+
+	public CustomerPage(List<Customer> customers, String nextCursor) {
+		this.customers = customers;
+		this.nextCursor = nextCursor;
+	}
+
+	public List<Customer> getCustomers() {
+		return customers;
+	}
+
+	public void setCustomers(List<Customer> customers) {
+		this.customers = customers;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+	
+}
@@ -0,0 +1,25 @@
+package com.luv2code.springdemo.rest;
+
+public class CustomerPreconditionFailedException extends RuntimeException {
+
+	public CustomerPreconditionFailedException() {
+	}
+
+	public CustomerPreconditionFailedException(String message) {
+		super(message);
+	}
+
+	public CustomerPreconditionFailedException(Throwable cause) {
+		super(cause);
+	}
+
+	public CustomerPreconditionFailedException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public CustomerPreconditionFailedException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace) {
+		super(message, cause, enableSuppression, writableStackTrace);
+	}
+
+}
@@ -0,0 +1,25 @@
+package com.luv2code.springdemo.rest;
+
+public class CustomerPreconditionRequiredException extends RuntimeException {
+
+	public CustomerPreconditionRequiredException() {
+	}
+
+	public CustomerPreconditionRequiredException(String message) {
+		super(message);
+	}
+
+	public CustomerPreconditionRequiredException(Throwable cause) {
+		super(cause);
+	}
+
+	public CustomerPreconditionRequiredException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+	public CustomerPreconditionRequiredException(String message, Throwable cause, boolean enableSuppression,
+			boolean writableStackTrace) {
+		super(message, cause, enableSuppression, writableStackTrace);
+	}
+
+}
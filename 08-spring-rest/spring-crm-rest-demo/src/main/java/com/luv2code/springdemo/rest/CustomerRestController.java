@@ -1,18 +1,35 @@
 package com.luv2code.springdemo.rest;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
+
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedOutputStream;
 import com.luv2code.springdemo.entity.Customer;
+import com.luv2code.springdemo.protobuf.CustomerProtobufCodec;
+import com.luv2code.springdemo.protobuf.CustomerProtobufHttpMessageConverter;
 import com.luv2code.springdemo.service.CustomerService;
 
 @RestController
@@ -23,18 +40,182 @@ public class CustomerRestController {
 	@Autowired
 	private CustomerService customerService;
 	
+	private static final int DEFAULT_PAGE_SIZE = 50;
+	private static final int MAX_PAGE_SIZE = 1000;
+	
+	// the whole batch is one transaction and stays in memory until it's done ... keep it bounded
+	private static final int MAX_BATCH_SIZE = 1000;
+	
+	// flush the response every so many rows so the client starts receiving data right away
+	private static final int STREAM_FLUSH_INTERVAL = 100;
+	
+	private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+	private static final MediaType CBOR = new MediaType("application", "cbor");
+	
+	// what GET /customers can stream ... JSON first, so */* and a missing Accept header stay JSON
+	private static final List<MediaType> STREAM_FORMATS = 
+			Arrays.asList(MediaType.APPLICATION_JSON, SMILE, CBOR, CustomerProtobufHttpMessageConverter.PROTOBUF);
+	
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+	private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+	
 	// add mapping for GET /customers
+	// writes the customers as an array while scrolling the table ... never holds the full list
+	// JSON by default, Smile / CBOR / protobuf (a CustomerList) when the Accept header asks for them
 	@GetMapping("/customers")
-	public List<Customer> getCustomers() {
+	public void getCustomers(@RequestHeader(name = "Accept", required = false) String accept,
+							HttpServletResponse response) throws IOException {
+		
+		MediaType format = streamFormat(accept);
+		
+		if (format.equals(CustomerProtobufHttpMessageConverter.PROTOBUF)) {
+			streamProtobuf(response);
+			return;
+		}
+		
+		ObjectMapper mapper = objectMapper;
+		
+		if (format.equals(SMILE)) {
+			mapper = smileMapper;
+		}
+		else if (format.equals(CBOR)) {
+			mapper = cborMapper;
+		}
+		
+		response.setContentType(mapper == objectMapper ? MediaType.APPLICATION_JSON_UTF8_VALUE : format.toString());
+		
+		JsonGenerator generator = mapper.getFactory().createGenerator(response.getOutputStream());
+		
+		try {
+			generator.writeStartArray();
+			
+			int[] count = { 0 };
+			
+			customerService.streamCustomers(theCustomer -> {
+				try {
+					generator.writeObject(theCustomer);
+					
+					if (++count[0] % STREAM_FLUSH_INTERVAL == 0) {
+						generator.flush();
+					}
+				}
+				catch (IOException exc) {
+					throw new UncheckedIOException(exc);
+				}
+			});
+			
+			generator.writeEndArray();
+			generator.close();
+		}
+		catch (IOException | RuntimeException exc) {
+			
+			// no close() here ... it would end the array and the response as if every customer was sent
+			abandonStream(response);
+			throw exc;
+		}
+	}
+	
+	private void streamProtobuf(HttpServletResponse response) throws IOException {
+		
+		response.setContentType(CustomerProtobufHttpMessageConverter.PROTOBUF.toString());
+		
+		CodedOutputStream out = CodedOutputStream.newInstance(response.getOutputStream(), 8192);
+		
+		int[] count = { 0 };
 		
-		return customerService.getCustomers();
+		try {
+			customerService.streamCustomers(theCustomer -> {
+				try {
+					CustomerProtobufCodec.writeCustomerListEntry(theCustomer, out);
+					
+					// the coded stream only hands its buffer over ... flushBuffer() sends it
+					if (++count[0] % STREAM_FLUSH_INTERVAL == 0) {
+						out.flush();
+						response.flushBuffer();
+					}
+				}
+				catch (IOException exc) {
+					throw new UncheckedIOException(exc);
+				}
+			});
+			
+			out.flush();
+		}
+		catch (IOException | RuntimeException exc) {
+			abandonStream(response);
+			throw exc;
+		}
+	}
+	
+	// the stream failed part way ... if nothing has gone out yet, drop what's buffered so the
+	// exception handler can still send a proper error status. Once rows were flushed the 200 is gone,
+	// the exception handler lets the exception through and the container cuts the connection,
+	// so the client sees a broken response instead of a short list that looks complete
+	private static void abandonStream(HttpServletResponse response) {
 		
+		if (!response.isCommitted()) {
+			response.reset();
+		}
+	}
+	
+	// first of our formats the Accept header allows, best match first
+	private static MediaType streamFormat(String accept) {
+		
+		if (accept == null) {
+			return MediaType.APPLICATION_JSON;
+		}
+		
+		List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+		MediaType.sortBySpecificityAndQuality(accepted);
+		
+		for (MediaType acceptedType : accepted) {
+			for (MediaType format : STREAM_FORMATS) {
+				if (acceptedType.includes(format)) {
+					return format;
+				}
+			}
+		}
+		
+		return MediaType.APPLICATION_JSON;
+	}
+	
+	// add mapping for GET /customers/page?cursor=...&size=...
+	// keyset pagination ... pass back nextCursor to get the following page
+	@GetMapping("/customers/page")
+	public CustomerPage getCustomerPage(@RequestParam(required = false) String cursor,
+										@RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+		
+		if (size < 1 || size > MAX_PAGE_SIZE) {
+			throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + " - " + size);
+		}
+		
+		List<Customer> customers;
+		
+		if (cursor == null) {
+			customers = customerService.getCustomers(null, 0, size);
+		}
+		else {
+			CustomerCursor theCursor = CustomerCursor.decode(cursor);
+			customers = customerService.getCustomers(theCursor.getLastName(), theCursor.getId(), size);
+		}
+		
+		// a short page means we reached the end
+		String nextCursor = null;
+		
+		if (customers.size() == size) {
+			nextCursor = CustomerCursor.from(customers.get(customers.size() - 1)).encode();
+		}
+		
+		return new CustomerPage(customers, nextCursor);
 	}
 	
 	// add mapping for GET /customers/{customerId}
+	// the ETag is the customer's version ... send it back as If-None-Match to get a 304 while unchanged,
+	// or as If-Match on PUT/DELETE so they only apply to the version you saw
 	
 	@GetMapping("/customers/{customerId}")
-	public Customer getCustomer(@PathVariable int customerId) {
+	public ResponseEntity<Customer> getCustomer(@PathVariable int customerId, WebRequest webRequest) {
 		
 		Customer theCustomer = customerService.getCustomer(customerId);
 		
@@ -42,7 +223,14 @@ public class CustomerRestController {
 			throw new CustomerNotFoundException("Customer id not found - " + customerId);
 		}
 		
-		return theCustomer;
+		String eTag = CustomerETag.of(theCustomer);
+		
+		// sets the 304 status and ETag header for us
+		if (webRequest.checkNotModified(eTag)) {
+			return null;
+		}
+		
+		return ResponseEntity.ok().eTag(eTag).body(theCustomer);
 	}
 	
 	// add mapping for POST /customers  - add new customer
@@ -55,36 +243,101 @@ public class CustomerRestController {
 		
 		theCustomer.setId(0);
 		
+		// a new customer starts at the first version, whatever the JSON says
+		theCustomer.setVersion(null);
+		
 		customerService.saveCustomer(theCustomer);
 		
 		return theCustomer;
 	}
 	
+	// add mapping for POST /customers/batch - add or update many customers in one transaction
+	// customers with id 0 are inserted ... others are updated, and must carry the version they were read at
+	
+	@PostMapping("/customers/batch")
+	public List<Customer> saveCustomers(@RequestBody List<Customer> theCustomers) {
+		
+		if (theCustomers.size() > MAX_BATCH_SIZE) {
+			throw new IllegalArgumentException("Batch size must be at most " + MAX_BATCH_SIZE + " - " + theCustomers.size());
+		}
+		
+		for (Customer theCustomer : theCustomers) {
+			
+			if (theCustomer.getId() == 0) {
+				theCustomer.setVersion(null);
+			}
+			else if (theCustomer.getVersion() == null) {
+				throw new IllegalArgumentException("Customer id " + theCustomer.getId() + " has no version - updates must send the version they read");
+			}
+		}
+		
+		customerService.saveCustomers(theCustomers);
+		
+		return theCustomers;
+	}
+	
 	// add mapping for PUT /customers - update existing customer
+	// optimistic ... the update only applies to the version in If-Match (or the body's version without it),
+	// if someone else got there first it's a 412 and nothing is overwritten
+	// with neither it's a 428 ... a missing version never quietly means version 0
 	
 	@PutMapping("/customers")
-	public Customer updateCustomer(@RequestBody Customer theCustomer) {
+	public ResponseEntity<Customer> updateCustomer(@RequestBody Customer theCustomer,
+									@RequestHeader(name = "If-Match", required = false) String ifMatch) {
 		
-		customerService.saveCustomer(theCustomer);
+		Integer version;
 		
-		return theCustomer;
+		if (ifMatch != null) {
+			
+			// null for "*" ... any current version
+			version = CustomerETag.parseIfMatch(ifMatch);
+		}
+		else if (theCustomer.getVersion() != null) {
+			version = theCustomer.getVersion();
+		}
+		else {
+			throw new CustomerPreconditionRequiredException("Customer updates need an If-Match header or the version they read");
+		}
+		
+		// looks up the current version and updates in one transaction on the primary
+		Customer updated = customerService.updateCustomer(theCustomer, version);
+		
+		if (updated == null) {
+			throw new CustomerNotFoundException("Customer id not found - " + theCustomer.getId());
+		}
+		
+		// hibernate bumped the version on commit
+		return ResponseEntity.ok().eTag(CustomerETag.of(updated)).body(updated);
 		
 	}
 	
 	// add mapping for DELETE /customers/{customerId} - delete customer
+	// one DELETE statement ... with If-Match it only deletes the version you saw
 	
 	@DeleteMapping("/customers/{customerId}")
-	public String deleteCustomer(@PathVariable int customerId) {
-		
-		Customer tempCustomer = customerService.getCustomer(customerId);
+	public String deleteCustomer(@PathVariable int customerId,
+								@RequestHeader(name = "If-Match", required = false) String ifMatch) {
 		
-		// throw exception if null
+		Integer version = ifMatch == null ? null : CustomerETag.parseIfMatch(ifMatch);
 		
-		if (tempCustomer == null) {
-			throw new CustomerNotFoundException("Customer id not found - " + customerId);
+		if (version == null) {
+			
+			// throw exception if nothing was deleted
+			
+			if (!customerService.deleteCustomer(customerId)) {
+				throw new CustomerNotFoundException("Customer id not found - " + customerId);
+			}
+		}
+		else if (!customerService.deleteCustomer(customerId, version)) {
+			
+			// only now look it up ... to tell a missing customer from a changed one
+			
+			if (customerService.getCustomer(customerId) == null) {
+				throw new CustomerNotFoundException("Customer id not found - " + customerId);
+			}
+			
+			throw new CustomerPreconditionFailedException("Customer id " + customerId + " has changed since version " + version);
 		}
-				
-		customerService.deleteCustomer(customerId);
 		
 		return "Deleted customer id - " + customerId;
 	}
@@ -1,5 +1,8 @@
 package com.luv2code.springdemo.rest;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -26,10 +29,55 @@ public class CustomerRestExceptionHandler {
 	}
 	
 	
+	// If-Match didn't match, or someone else updated the customer first (@Version check failed)
+	
+	@ExceptionHandler
+	public ResponseEntity<CustomerErrorResponse> handleException(CustomerPreconditionFailedException exc) {
+		
+		return preconditionFailed(exc.getMessage());
+	}
+	
+	@ExceptionHandler
+	public ResponseEntity<CustomerErrorResponse> handleException(OptimisticLockingFailureException exc) {
+		
+		return preconditionFailed("Customer was changed or deleted by someone else ... get it again and retry");
+	}
+	
+	// an update without If-Match or a version ... we won't guess which version it meant
+	
+	@ExceptionHandler
+	public ResponseEntity<CustomerErrorResponse> handleException(CustomerPreconditionRequiredException exc) {
+		
+		CustomerErrorResponse error = new CustomerErrorResponse(
+											HttpStatus.PRECONDITION_REQUIRED.value(),
+											exc.getMessage(),
+											System.currentTimeMillis());
+		
+		return new ResponseEntity<>(error, HttpStatus.PRECONDITION_REQUIRED);
+	}
+	
+	private ResponseEntity<CustomerErrorResponse> preconditionFailed(String message) {
+		
+		CustomerErrorResponse error = new CustomerErrorResponse(
+											HttpStatus.PRECONDITION_FAILED.value(),
+											message,
+											System.currentTimeMillis());
+		
+		return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+	}
+	
+	
 	// Add another exception handler ... to catch any exception (catch all)
 
 	@ExceptionHandler
-	public ResponseEntity<CustomerErrorResponse> handleException(Exception exc) {
+	public ResponseEntity<CustomerErrorResponse> handleException(Exception exc, HttpServletResponse response) throws Exception {
+		
+		// GET /customers failed after it started streaming ... appending an error body would just
+		// corrupt the 200 already on its way, rethrow so the container aborts the response instead
+		
+		if (response.isCommitted()) {
+			throw exc;
+		}
 		
 		// create CustomerErrorResponse
 		
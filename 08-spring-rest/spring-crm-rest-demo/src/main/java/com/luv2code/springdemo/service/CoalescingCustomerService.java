@@ -0,0 +1,302 @@
+package com.luv2code.springdemo.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+
+import com.luv2code.springdemo.entity.Customer;
+
+/**
+ * Sits in front of CustomerServiceImpl and collapses concurrent getCustomer() calls for the same id
+ * into a single database read (single-flight):
+ *
+ *  - the first caller for an id runs the query, everyone arriving while it runs waits for that result
+ *  - ids that were not found are remembered for a short while, so repeated misses don't hit the database
+ *    (not with read replicas configured ... a lagging replica's miss may be a customer just added on the primary)
+ *  - writes go straight through, then drop any remembered miss and any load still running for the ids
+ *    they touch, so a read after the write never gets an answer that was read before it
+ *
+ * Waiters share the same Customer instance ... callers treat it as read-only, as the controller does.
+ * Counters are exported over JMX as com.luv2code.springdemo:type=CustomerLookup.
+ */
+@Service
+@Primary
+@ManagedResource(objectName = "com.luv2code.springdemo:type=CustomerLookup")
+public class CoalescingCustomerService implements CustomerService {
+
+	private final CustomerService customerService;
+
+	// 0 when misses aren't remembered at all
+	private final long notFoundTtlNanos;
+
+	private final int notFoundMaxEntries;
+
+	// the one load currently running for each id
+	private final Map<Integer, CompletableFuture<Customer>> inFlight = new ConcurrentHashMap<>();
+
+	// id -> System.nanoTime() when the miss expires
+	private final Map<Integer, Long> notFound = new ConcurrentHashMap<>();
+
+	// bumped after every write has committed ... a load that overlapped a write doesn't get to
+	// remember its miss, the customer may have been inserted after the load read nothing
+	private final AtomicLong writeGeneration = new AtomicLong();
+
+	private final LongAdder executedLoads = new LongAdder();
+	private final LongAdder coalescedLoads = new LongAdder();
+	private final LongAdder notFoundHits = new LongAdder();
+
+	@Autowired
+	public CoalescingCustomerService(@Qualifier("customerServiceImpl") CustomerService theCustomerService,
+									@Value("${customer.lookup.notFoundTtlMillis:2000}") long theNotFoundTtlMillis,
+									@Value("${customer.lookup.notFoundMaxEntries:10000}") int theNotFoundMaxEntries,
+									@Value("${jdbc.replica.urls:}") String theReplicaUrls) {
+		customerService = theCustomerService;
+		notFoundMaxEntries = theNotFoundMaxEntries;
+		
+		// getCustomer reads from a replica when there are any ... its "not found" can just be lag
+		notFoundTtlNanos = theReplicaUrls.trim().isEmpty() ? theNotFoundTtlMillis * 1_000_000L : 0;
+	}
+
+	@Override
+	public Customer getCustomer(int theId) {
+
+		if (isKnownNotFound(theId)) {
+			notFoundHits.increment();
+			return null;
+		}
+
+		CompletableFuture<Customer> load = new CompletableFuture<>();
+		CompletableFuture<Customer> running = inFlight.putIfAbsent(theId, load);
+
+		// someone is already reading this id ... wait for their result
+		if (running != null) {
+			coalescedLoads.increment();
+			return join(running);
+		}
+
+		executedLoads.increment();
+
+		long generation = writeGeneration.get();
+
+		try {
+			Customer theCustomer = customerService.getCustomer(theId);
+
+			if (theCustomer == null) {
+				rememberNotFound(theId, generation);
+			}
+
+			load.complete(theCustomer);
+
+			return theCustomer;
+		}
+		catch (RuntimeException | Error exc) {
+			load.completeExceptionally(exc);
+			throw exc;
+		}
+		finally {
+			// later callers start a fresh load ... only remove our own entry
+			inFlight.remove(theId, load);
+		}
+	}
+
+	@Override
+	public List<Customer> getCustomers() {
+		return customerService.getCustomers();
+	}
+
+	@Override
+	public List<Customer> getCustomers(String afterLastName, int afterId, int maxResults) {
+		return customerService.getCustomers(afterLastName, afterId, maxResults);
+	}
+
+	@Override
+	public void streamCustomers(Consumer<Customer> theConsumer) {
+		customerService.streamCustomers(theConsumer);
+	}
+
+	@Override
+	public void saveCustomer(Customer theCustomer) {
+
+		try {
+			customerService.saveCustomer(theCustomer);
+		}
+		finally {
+			writeGeneration.incrementAndGet();
+		}
+
+		// a new customer only has its id after the save
+		written(theCustomer.getId());
+	}
+
+	@Override
+	public void saveCustomers(List<Customer> theCustomers) {
+
+		try {
+			customerService.saveCustomers(theCustomers);
+		}
+		finally {
+			writeGeneration.incrementAndGet();
+		}
+
+		for (Customer theCustomer : theCustomers) {
+			written(theCustomer.getId());
+		}
+	}
+
+	@Override
+	public Customer updateCustomer(Customer theCustomer, Integer theExpectedVersion) {
+
+		try {
+			return customerService.updateCustomer(theCustomer, theExpectedVersion);
+		}
+		finally {
+			writeGeneration.incrementAndGet();
+			written(theCustomer.getId());
+		}
+	}
+
+	@Override
+	public boolean deleteCustomer(int theId) {
+
+		try {
+			return customerService.deleteCustomer(theId);
+		}
+		finally {
+			writeGeneration.incrementAndGet();
+			written(theId);
+		}
+	}
+
+	@Override
+	public boolean deleteCustomer(int theId, int theVersion) {
+
+		try {
+			return customerService.deleteCustomer(theId, theVersion);
+		}
+		finally {
+			writeGeneration.incrementAndGet();
+			written(theId);
+		}
+	}
+
+	@ManagedAttribute(description = "getCustomer calls that ran a database read")
+	public long getExecutedLoads() {
+		return executedLoads.sum();
+	}
+
+	@ManagedAttribute(description = "getCustomer calls that shared a read already in flight")
+	public long getCoalescedLoads() {
+		return coalescedLoads.sum();
+	}
+
+	@ManagedAttribute(description = "getCustomer calls answered from the not-found cache")
+	public long getNotFoundHits() {
+		return notFoundHits.sum();
+	}
+
+	@ManagedAttribute(description = "Reads in flight right now")
+	public int getInFlightLoads() {
+		return inFlight.size();
+	}
+
+	@ManagedAttribute(description = "Ids currently remembered as not found")
+	public int getNotFoundEntries() {
+		return notFound.size();
+	}
+
+	@ManagedOperation(description = "Forget all remembered misses")
+	public void clearNotFound() {
+		notFound.clear();
+	}
+
+	// after a write has committed and bumped the generation ... forget the remembered miss, and detach
+	// a load that may have read the row before the write so later callers start a fresh one
+	// (whoever already joined it still gets its result, they asked before the write finished)
+	private void written(int theId) {
+		notFound.remove(theId);
+		inFlight.remove(theId);
+	}
+
+	private boolean isKnownNotFound(int theId) {
+
+		Long expiresAt = notFound.get(theId);
+
+		if (expiresAt == null) {
+			return false;
+		}
+
+		if (System.nanoTime() - expiresAt < 0) {
+			return true;
+		}
+
+		notFound.remove(theId, expiresAt);
+
+		return false;
+	}
+
+	// theGeneration is the write generation from before the load read the database
+	private void rememberNotFound(int theId, long theGeneration) {
+
+		if (notFoundTtlNanos <= 0 || theGeneration != writeGeneration.get()) {
+			return;
+		}
+
+		long now = System.nanoTime();
+
+		// someone scanning random ids shouldn't grow this forever ... drop the expired ones,
+		// and if it's still full just don't remember this miss
+		if (notFound.size() >= notFoundMaxEntries) {
+			notFound.values().removeIf(expiresAt -> now - expiresAt >= 0);
+
+			if (notFound.size() >= notFoundMaxEntries) {
+				return;
+			}
+		}
+
+		Long expiresAt = now + notFoundTtlNanos;
+
+		notFound.put(theId, expiresAt);
+
+		// a write can commit and clear this id between the check above and the put ... writers bump the
+		// generation before they clear, so either we see the bump here or their clear comes after our put
+		if (theGeneration != writeGeneration.get()) {
+			notFound.remove(theId, expiresAt);
+		}
+	}
+
+	private static Customer join(CompletableFuture<Customer> theLoad) {
+
+		try {
+			return theLoad.join();
+		}
+		catch (CompletionException exc) {
+
+			// give waiters the same exception the loading caller got
+			Throwable cause = exc.getCause();
+
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+
+			throw exc;
+		}
+	}
+
+}
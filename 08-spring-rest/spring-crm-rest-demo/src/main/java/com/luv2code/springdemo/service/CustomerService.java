@@ -1,6 +1,7 @@
 package com.luv2code.springdemo.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import com.luv2code.springdemo.entity.Customer;
 
@@ -8,10 +9,22 @@ public interface CustomerService {
 
 	public List<Customer> getCustomers();
 
+	public List<Customer> getCustomers(String afterLastName, int afterId, int maxResults);
+
+	public void streamCustomers(Consumer<Customer> theConsumer);
+
 	public void saveCustomer(Customer theCustomer);
 
+	public void saveCustomers(List<Customer> theCustomers);
+
+	// updates the customer if it still has theExpectedVersion (null = whatever version it has now) ...
+	// returns the updated customer, null if there is no such customer
+	public Customer updateCustomer(Customer theCustomer, Integer theExpectedVersion);
+
 	public Customer getCustomer(int theId);
 
-	public void deleteCustomer(int theId);
+	public boolean deleteCustomer(int theId);
+
+	public boolean deleteCustomer(int theId, int theVersion);
 	
 }
@@ -1,8 +1,10 @@
 package com.luv2code.springdemo.service;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -17,11 +19,23 @@ public class CustomerServiceImpl implements CustomerService {
 	private CustomerDAO customerDAO;
 	
 	@Override
-	@Transactional
+	@Transactional(readOnly = true)
 	public List<Customer> getCustomers() {
 		return customerDAO.getCustomers();
 	}
 
+	@Override
+	@Transactional(readOnly = true)
+	public List<Customer> getCustomers(String afterLastName, int afterId, int maxResults) {
+		return customerDAO.getCustomers(afterLastName, afterId, maxResults);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public void streamCustomers(Consumer<Customer> theConsumer) {
+		customerDAO.streamCustomers(theConsumer);
+	}
+
 	@Override
 	@Transactional
 	public void saveCustomer(Customer theCustomer) {
@@ -31,6 +45,37 @@ public class CustomerServiceImpl implements CustomerService {
 
 	@Override
 	@Transactional
+	public void saveCustomers(List<Customer> theCustomers) {
+
+		customerDAO.saveCustomers(theCustomers);
+	}
+
+	@Override
+	@Transactional
+	public Customer updateCustomer(Customer theCustomer, Integer theExpectedVersion) {
+		
+		// a read-write transaction, so this reads the primary ... a replica could hand us an old version
+		Customer current = customerDAO.getCustomer(theCustomer.getId());
+		
+		if (current == null) {
+			return null;
+		}
+		
+		if (theExpectedVersion != null && !theExpectedVersion.equals(current.getVersion())) {
+			throw new OptimisticLockingFailureException(
+					"Customer id " + theCustomer.getId() + " has changed since version " + theExpectedVersion);
+		}
+		
+		// hibernate writes these on commit ... where version = the one we just read, and bumps it
+		current.setFirstName(theCustomer.getFirstName());
+		current.setLastName(theCustomer.getLastName());
+		current.setEmail(theCustomer.getEmail());
+		
+		return current;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public Customer getCustomer(int theId) {
 		
 		return customerDAO.getCustomer(theId);
@@ -38,9 +83,16 @@ public class CustomerServiceImpl implements CustomerService {
 
 	@Override
 	@Transactional
-	public void deleteCustomer(int theId) {
+	public boolean deleteCustomer(int theId) {
+		
+		return customerDAO.deleteCustomer(theId) > 0;
+	}
+
+	@Override
+	@Transactional
+	public boolean deleteCustomer(int theId, int theVersion) {
 		
-		customerDAO.deleteCustomer(theId);
+		return customerDAO.deleteCustomer(theId, theVersion) > 0;
 	}
 }
 
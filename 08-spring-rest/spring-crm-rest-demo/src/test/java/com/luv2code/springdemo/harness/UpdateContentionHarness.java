@@ -0,0 +1,386 @@
+package com.luv2code.springdemo.harness;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hammers a few hot customer rows from many threads and compares two ways of not losing updates:
+ *
+ *  - optimistic   read the row and its version, update "where id=? and version=?", retry on 0 rows
+ *                 (what PUT /api/customers with If-Match does)
+ *  - pessimistic  select ... for update inside a transaction, then update ... the row lock is held
+ *                 from the read until the commit
+ *
+ * thinkMillis is the pause between the read and the write, standing in for the client editing the customer.
+ * It's where the two differ most: the pessimistic version holds the row lock through it.
+ *
+ * Works on a scratch copy of the customer table (customer_contention), dropped again at the end.
+ * Needs sql-scripts/04-customer-version.sql applied first. Run with:
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.luv2code.springdemo.harness.UpdateContentionHarness
+ *       -Dexec.args="threads rows seconds thinkMillis"
+ */
+public class UpdateContentionHarness {
+
+	private static final String TABLE = "customer_contention";
+
+	private static final int MAX_RETRIES = 1000;
+
+	private final String url;
+	private final String user;
+	private final String password;
+
+	private final int threads;
+	private final int rows;
+	private final int seconds;
+	private final int thinkMillis;
+
+	public UpdateContentionHarness(Properties props, int threads, int rows, int seconds, int thinkMillis) {
+		this.url = props.getProperty("jdbc.url");
+		this.user = props.getProperty("jdbc.user");
+		this.password = props.getProperty("jdbc.password");
+		this.threads = threads;
+		this.rows = rows;
+		this.seconds = seconds;
+		this.thinkMillis = thinkMillis;
+	}
+
+	public static void main(String[] args) throws Exception {
+
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+		int rows = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+		int thinkMillis = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+		UpdateContentionHarness harness =
+				new UpdateContentionHarness(loadProperties(), threads, rows, seconds, thinkMillis);
+
+		System.out.println("threads=" + threads + " rows=" + rows + " seconds=" + seconds
+							+ " thinkMillis=" + thinkMillis);
+		System.out.println();
+
+		harness.createTable();
+
+		try {
+			// one short warm-up each so neither mode pays for cold buffers
+			harness.run(new OptimisticUpdate(), 1);
+			harness.run(new PessimisticUpdate(), 1);
+
+			Result optimistic = harness.run(new OptimisticUpdate(), seconds);
+			Result pessimistic = harness.run(new PessimisticUpdate(), seconds);
+
+			System.out.println(optimistic);
+			System.out.println(pessimistic);
+		}
+		finally {
+			harness.dropTable();
+		}
+	}
+
+	private Result run(Update update, int runSeconds) throws InterruptedException {
+
+		Worker[] workers = new Worker[threads];
+		Thread[] workerThreads = new Thread[threads];
+
+		AtomicBoolean running = new AtomicBoolean(true);
+		CountDownLatch start = new CountDownLatch(1);
+
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Worker(update, running, start);
+			workerThreads[i] = new Thread(workers[i], update.name() + "-" + i);
+			workerThreads[i].start();
+		}
+
+		long begin = System.nanoTime();
+		start.countDown();
+
+		TimeUnit.SECONDS.sleep(runSeconds);
+		running.set(false);
+
+		for (Thread workerThread : workerThreads) {
+			workerThread.join();
+		}
+
+		long elapsedNanos = System.nanoTime() - begin;
+
+		Result result = new Result(update.name(), elapsedNanos);
+
+		for (Worker worker : workers) {
+			if (worker.failure != null) {
+				throw new IllegalStateException(update.name() + " worker failed", worker.failure);
+			}
+			result.add(worker);
+		}
+
+		return result;
+	}
+
+	private class Worker implements Runnable {
+
+		private final Update update;
+		private final AtomicBoolean running;
+		private final CountDownLatch start;
+
+		private long updates;
+		private long retries;
+		private long[] latencies = new long[1024];
+		private int latencyCount;
+		private Exception failure;
+
+		Worker(Update update, AtomicBoolean running, CountDownLatch start) {
+			this.update = update;
+			this.running = running;
+			this.start = start;
+		}
+
+		@Override
+		public void run() {
+
+			try (Connection connection = DriverManager.getConnection(url, user, password)) {
+
+				start.await();
+
+				while (running.get()) {
+
+					int id = 1 + ThreadLocalRandom.current().nextInt(rows);
+
+					long begin = System.nanoTime();
+
+					retries += update.apply(connection, id, thinkMillis);
+					updates++;
+
+					recordLatency(System.nanoTime() - begin);
+				}
+			}
+			catch (Exception exc) {
+				failure = exc;
+			}
+		}
+
+		private void recordLatency(long nanos) {
+
+			if (latencyCount == latencies.length) {
+				latencies = Arrays.copyOf(latencies, latencyCount * 2);
+			}
+
+			latencies[latencyCount++] = nanos;
+		}
+	}
+
+	// one successful update of the row ... returns how many attempts had to be retried
+	private interface Update {
+
+		String name();
+
+		int apply(Connection connection, int id, int thinkMillis) throws SQLException, InterruptedException;
+	}
+
+	private static class OptimisticUpdate implements Update {
+
+		@Override
+		public String name() {
+			return "optimistic";
+		}
+
+		@Override
+		public int apply(Connection connection, int id, int thinkMillis) throws SQLException, InterruptedException {
+
+			connection.setAutoCommit(true);
+
+			try (PreparedStatement read = connection.prepareStatement(
+							"select email, version from " + TABLE + " where id=?");
+					PreparedStatement write = connection.prepareStatement(
+							"update " + TABLE + " set email=?, version=version+1 where id=? and version=?")) {
+
+				for (int attempt = 0; attempt < MAX_RETRIES; attempt++) {
+
+					read.setInt(1, id);
+
+					int version;
+					try (ResultSet rs = read.executeQuery()) {
+						rs.next();
+						version = rs.getInt("version");
+					}
+
+					think(thinkMillis);
+
+					write.setString(1, "user" + id + "-" + version + "@luv2code.com");
+					write.setInt(2, id);
+					write.setInt(3, version);
+
+					// 0 rows ... someone else updated it since we read it, read again
+					if (write.executeUpdate() == 1) {
+						return attempt;
+					}
+				}
+			}
+
+			throw new IllegalStateException("Gave up on customer " + id + " after " + MAX_RETRIES + " conflicts");
+		}
+	}
+
+	private static class PessimisticUpdate implements Update {
+
+		@Override
+		public String name() {
+			return "pessimistic";
+		}
+
+		@Override
+		public int apply(Connection connection, int id, int thinkMillis) throws SQLException, InterruptedException {
+
+			connection.setAutoCommit(false);
+
+			try (PreparedStatement read = connection.prepareStatement(
+							"select email, version from " + TABLE + " where id=? for update");
+					PreparedStatement write = connection.prepareStatement(
+							"update " + TABLE + " set email=?, version=version+1 where id=?")) {
+
+				read.setInt(1, id);
+
+				int version;
+				try (ResultSet rs = read.executeQuery()) {
+					rs.next();
+					version = rs.getInt("version");
+				}
+
+				// everyone else wanting this row waits right here
+				think(thinkMillis);
+
+				write.setString(1, "user" + id + "-" + version + "@luv2code.com");
+				write.setInt(2, id);
+				write.executeUpdate();
+
+				connection.commit();
+
+				return 0;
+			}
+			catch (SQLException | RuntimeException exc) {
+				connection.rollback();
+				throw exc;
+			}
+		}
+	}
+
+	private static class Result {
+
+		private final String name;
+		private final long elapsedNanos;
+
+		private long updates;
+		private long retries;
+		private final List<long[]> latencies = new ArrayList<>();
+		private int latencyCount;
+
+		Result(String name, long elapsedNanos) {
+			this.name = name;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		void add(Worker worker) {
+			updates += worker.updates;
+			retries += worker.retries;
+			latencies.add(Arrays.copyOf(worker.latencies, worker.latencyCount));
+			latencyCount += worker.latencyCount;
+		}
+
+		@Override
+		public String toString() {
+
+			long[] all = new long[latencyCount];
+			int offset = 0;
+
+			for (long[] part : latencies) {
+				System.arraycopy(part, 0, all, offset, part.length);
+				offset += part.length;
+			}
+
+			Arrays.sort(all);
+
+			double throughput = updates / (elapsedNanos / 1_000_000_000.0);
+
+			return String.format("%-12s %10.1f updates/s   retries=%-8d p50=%.2f ms   p99=%.2f ms   max=%.2f ms",
+									name, throughput, retries,
+									percentileMillis(all, 0.50), percentileMillis(all, 0.99),
+									percentileMillis(all, 1.0));
+		}
+
+		private static double percentileMillis(long[] sorted, double percentile) {
+
+			if (sorted.length == 0) {
+				return 0;
+			}
+
+			int index = (int) Math.ceil(percentile * sorted.length) - 1;
+
+			return sorted[Math.max(index, 0)] / 1_000_000.0;
+		}
+	}
+
+	private void createTable() throws SQLException {
+
+		try (Connection connection = DriverManager.getConnection(url, user, password);
+				Statement statement = connection.createStatement()) {
+
+			statement.executeUpdate("drop table if exists " + TABLE);
+			statement.executeUpdate("create table " + TABLE + " like customer");
+
+			try (PreparedStatement insert = connection.prepareStatement(
+							"insert into " + TABLE + " (id, first_name, last_name, email, version) values (?, ?, ?, ?, 0)")) {
+
+				for (int id = 1; id <= rows; id++) {
+					insert.setInt(1, id);
+					insert.setString(2, "Hot");
+					insert.setString(3, "Row " + id);
+					insert.setString(4, "user" + id + "@luv2code.com");
+					insert.addBatch();
+				}
+
+				insert.executeBatch();
+			}
+		}
+	}
+
+	private void dropTable() throws SQLException {
+
+		try (Connection connection = DriverManager.getConnection(url, user, password);
+				Statement statement = connection.createStatement()) {
+
+			statement.executeUpdate("drop table if exists " + TABLE);
+		}
+	}
+
+	private static void think(int thinkMillis) throws InterruptedException {
+
+		if (thinkMillis > 0) {
+			Thread.sleep(thinkMillis);
+		}
+	}
+
+	private static Properties loadProperties() throws IOException {
+
+		Properties props = new Properties();
+
+		try (InputStream in = UpdateContentionHarness.class.getResourceAsStream("/persistence-mysql.properties")) {
+			props.load(in);
+		}
+
+		return props;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+// Spring Boot already publishes the Hibernate region hit/miss/put counts (hibernate.second.level.cache.*)
+// this adds the JCache-level stats, including evictions, as cache.* metrics for each region
+@Configuration
+@ConditionalOnProperty(name="spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue="true")
+public class EmployeeCacheMetricsConfig {
+
+	@Bean
+	public SmartInitializingSingleton employeeCacheMetrics(MeterRegistry registry,
+														EntityManagerFactory entityManagerFactory) {
+		
+		// runs after the entity manager factory is built ... so Hibernate has created its regions
+		return () -> {
+			
+			// Hibernate uses the provider's default cache manager since we don't set a config uri
+			CacheManager cacheManager = 
+					Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+			
+			for (String cacheName : cacheManager.getCacheNames()) {
+				JCacheMetrics.monitor(registry, cacheManager.getCache(cacheName));
+			}
+		};
+	}
+	
+}
@@ -0,0 +1,82 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+// sends @Transactional(readOnly = true) work to the read replicas in app.datasource.replicas.urls
+// without that property Spring Boot's usual single datasource is used
+@Configuration
+@ConditionalOnProperty(prefix="app.datasource.replicas", name="urls")
+public class ReadReplicaConfig {
+
+	// the primary, built the same way Spring Boot would build it
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+	
+	@Bean
+	public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+													DataSourceProperties properties,
+													@Value("${app.datasource.replicas.urls}") List<String> replicaUrls,
+													@Value("${app.datasource.replicas.max-lag-seconds:10}") long maxLagSeconds,
+													@Value("${app.datasource.replicas.lag-check-interval-seconds:5}") int lagCheckIntervalSeconds,
+													@Value("${app.datasource.replicas.lag-query:SHOW SLAVE STATUS}") String lagQuery,
+													@Value("${app.datasource.replicas.lag-column:Seconds_Behind_Master}") String lagColumn,
+													@Value("${app.datasource.replicas.connect-timeout-millis:2000}") int connectTimeoutMillis,
+													@Value("${app.datasource.replicas.check-timeout-seconds:2}") int checkTimeoutSeconds) {
+		
+		List<DataSource> replicas = new ArrayList<>();
+		
+		// same credentials as the primary
+		for (String replicaUrl : replicaUrls) {
+			
+			HikariDataSource replica = DataSourceBuilder.create()
+									.type(HikariDataSource.class)
+									.url(replicaUrl)
+									.username(properties.determineUsername())
+									.password(properties.determinePassword())
+									.build();
+			
+			// a dead replica should be noticed in a second or two, not after hikari's 30s default
+			replica.setConnectionTimeout(connectTimeoutMillis);
+			replica.addDataSourceProperty("connectTimeout", String.valueOf(connectTimeoutMillis));
+			
+			replicas.add(replica);
+		}
+		
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primaryDataSource, replicas);
+		
+		routingDataSource.setMaxLagSeconds(maxLagSeconds);
+		routingDataSource.setLagCheckIntervalSeconds(lagCheckIntervalSeconds);
+		routingDataSource.setLagQuery(lagQuery);
+		routingDataSource.setLagColumn(lagColumn);
+		routingDataSource.setCheckTimeoutSeconds(checkTimeoutSeconds);
+		
+		return routingDataSource;
+	}
+	
+	// what JPA uses ... the lazy proxy holds off on picking primary or replica until the first statement,
+	// by then the transaction has been marked read-only or not
+	@Bean
+	@Primary
+	public DataSource dataSource(ReplicaRoutingDataSource routingDataSource) {
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+	
+}
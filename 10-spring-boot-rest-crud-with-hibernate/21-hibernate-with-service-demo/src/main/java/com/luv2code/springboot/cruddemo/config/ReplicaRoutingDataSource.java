@@ -0,0 +1,265 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary.
+ * 
+ * Replicas are picked round-robin, skipping any that are unreachable or lagging more than
+ * maxLagSeconds behind the primary. If no replica is usable, reads go to the primary ... and so
+ * does a read whose replica fails to hand out a connection, that replica is then taken out of
+ * rotation until the next successful check.
+ * 
+ * Give the replica pools a short connection / checkout timeout (a couple of seconds). Both the
+ * health check and reads routed to a replica wait on the replica pool's getConnection(), and the
+ * pool defaults (30s for Hikari, 30 acquire retries for c3p0) would stall startup, every check
+ * and those reads for that long when a replica goes away.
+ * 
+ * Wrap this in a LazyConnectionDataSourceProxy ... the transaction manager asks for a connection
+ * before it marks the transaction read-only, the lazy proxy delays that until the first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	private static final String PRIMARY = "primary";
+	
+	private Logger logger = Logger.getLogger(getClass().getName());
+	
+	private final DataSource primary;
+	
+	private final List<Replica> replicas = new ArrayList<>();
+	private final AtomicInteger next = new AtomicInteger();
+	
+	private long maxLagSeconds = 10;
+	private int lagCheckIntervalSeconds = 5;
+	
+	// how long the health check's own statements may take once it has a connection
+	private int checkTimeoutSeconds = 2;
+	
+	// MySQL replica status ... leave the query empty to only check the replica is reachable
+	private String lagQuery = "SHOW SLAVE STATUS";
+	private String lagColumn = "Seconds_Behind_Master";
+	
+	private ScheduledExecutorService monitor;
+	
+	public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicaDataSources) {
+		
+		this.primary = primary;
+		
+		Map<Object, Object> targets = new HashMap<>();
+		targets.put(PRIMARY, primary);
+		
+		for (int i = 0; i < replicaDataSources.size(); i++) {
+			targets.put(i, replicaDataSources.get(i));
+			replicas.add(new Replica(i, replicaDataSources.get(i)));
+		}
+		
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+	}
+	
+	public void setMaxLagSeconds(long maxLagSeconds) {
+		this.maxLagSeconds = maxLagSeconds;
+	}
+
+	// 0 turns the lag check off ... every replica is then always used
+	public void setLagCheckIntervalSeconds(int lagCheckIntervalSeconds) {
+		this.lagCheckIntervalSeconds = lagCheckIntervalSeconds;
+	}
+
+	public void setLagQuery(String lagQuery) {
+		this.lagQuery = lagQuery;
+	}
+
+	public void setLagColumn(String lagColumn) {
+		this.lagColumn = lagColumn;
+	}
+
+	public void setCheckTimeoutSeconds(int checkTimeoutSeconds) {
+		this.checkTimeoutSeconds = checkTimeoutSeconds;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		
+		super.afterPropertiesSet();
+		
+		if (replicas.isEmpty() || lagCheckIntervalSeconds <= 0) {
+			return;
+		}
+		
+		// check once up front so we don't route to a dead replica before the first tick
+		checkReplicas();
+		
+		monitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "replica-lag-monitor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		
+		monitor.scheduleWithFixedDelay(this::checkReplicas, 
+				lagCheckIntervalSeconds, lagCheckIntervalSeconds, TimeUnit.SECONDS);
+	}
+	
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(null, null);
+	}
+	
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		
+		Replica replica = currentReplica();
+		
+		if (replica != null) {
+			try {
+				return connect(replica.dataSource, username, password);
+			}
+			catch (SQLException | RuntimeException exc) {
+				
+				// died since the last check ... don't send anyone else there, and serve this read from the primary
+				replica.update(false, exc.toString());
+			}
+		}
+		
+		return connect(primary, username, password);
+	}
+	
+	@Override
+	protected Object determineCurrentLookupKey() {
+		
+		Replica replica = currentReplica();
+		
+		return (replica == null) ? PRIMARY : replica.key;
+	}
+	
+	// next usable replica for a read-only transaction ... null means use the primary
+	private Replica currentReplica() {
+		
+		if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return null;
+		}
+		
+		int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+		
+		for (int i = 0; i < replicas.size(); i++) {
+			
+			Replica replica = replicas.get((start + i) % replicas.size());
+			
+			if (replica.usable) {
+				return replica;
+			}
+		}
+		
+		return null;
+	}
+	
+	private static Connection connect(DataSource dataSource, String username, String password) throws SQLException {
+		return (username == null) ? dataSource.getConnection() : dataSource.getConnection(username, password);
+	}
+	
+	// stops the lag monitor and closes the replica pools ... the primary is closed by its own bean
+	public void close() {
+		
+		if (monitor != null) {
+			monitor.shutdownNow();
+		}
+		
+		for (Replica replica : replicas) {
+			if (replica.dataSource instanceof AutoCloseable) {
+				try {
+					((AutoCloseable) replica.dataSource).close();
+				}
+				catch (Exception exc) {
+					logger.warning("Failed to close read replica " + replica.key + ": " + exc);
+				}
+			}
+		}
+	}
+	
+	private void checkReplicas() {
+		for (Replica replica : replicas) {
+			replica.check();
+		}
+	}
+	
+	
+	private class Replica {
+		
+		private final int key;
+		private final DataSource dataSource;
+		private volatile boolean usable = true;
+		
+		Replica(int key, DataSource dataSource) {
+			this.key = key;
+			this.dataSource = dataSource;
+		}
+		
+		void check() {
+			
+			boolean nowUsable;
+			String reason;
+			
+			try (Connection connection = dataSource.getConnection()) {
+				
+				if (lagQuery == null || lagQuery.isEmpty()) {
+					nowUsable = connection.isValid(checkTimeoutSeconds);
+					reason = nowUsable ? "reachable" : "connection not valid";
+				}
+				else {
+					try (Statement statement = connection.createStatement()) {
+						
+						statement.setQueryTimeout(checkTimeoutSeconds);
+						
+						ResultSet result = statement.executeQuery(lagQuery);
+						
+						Object lag = result.next() ? result.getObject(lagColumn) : null;
+						
+						// null means replication is stopped or this isn't a replica
+						if (lag == null) {
+							nowUsable = false;
+							reason = "replication not running";
+						}
+						else {
+							long lagSeconds = ((Number) lag).longValue();
+							nowUsable = lagSeconds <= maxLagSeconds;
+							reason = "lag " + lagSeconds + "s";
+						}
+					}
+				}
+			}
+			catch (SQLException | RuntimeException exc) {
+				nowUsable = false;
+				reason = exc.toString();
+			}
+			
+			update(nowUsable, reason);
+		}
+		
+		synchronized void update(boolean nowUsable, String reason) {
+			
+			if (nowUsable != usable) {
+				logger.warning("Read replica " + key + (nowUsable ? " back in rotation (" : " taken out of rotation (") + reason + ")");
+			}
+			
+			usable = nowUsable;
+		}
+	}
+	
+}
@@ -34,6 +34,11 @@ public class EmployeeDAOHibernateImpl implements EmployeeDAO {
 		Query<Employee> theQuery =
 				currentSession.createQuery("from Employee", Employee.class);
 		
+		// cache the result when the query cache is enabled ...
+		// Hibernate drops it automatically whenever the employee table is written
+		theQuery.setCacheable(true);
+		theQuery.setCacheRegion("employee-queries");
+		
 		// execute query and get result list
 		List<Employee> employees = theQuery.getResultList();
 		
@@ -19,14 +19,17 @@ public class EmployeeServiceImpl implements EmployeeService {
 		employeeDAO = theEmployeeDAO;
 	}
 	
+	// read-only: routed to a replica when configured, and Hibernate skips flushing and
+	// dirty-check snapshots for the loaded entities
+	
 	@Override
-	@Transactional
+	@Transactional(readOnly = true)
 	public List<Employee> findAll() {
 		return employeeDAO.findAll();
 	}
 
 	@Override
-	@Transactional
+	@Transactional(readOnly = true)
 	public Employee findById(int theId) {
 		return employeeDAO.findById(theId);
 	}
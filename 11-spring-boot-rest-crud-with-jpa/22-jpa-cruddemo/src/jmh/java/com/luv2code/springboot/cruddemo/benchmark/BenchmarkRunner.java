@@ -0,0 +1,27 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+
+	// pass a regex as the first argument to run a subset, e.g. "findById" or "EmployeeCodecBenchmark"
+	public static void main(String[] args) throws RunnerException {
+		
+		String include = args.length > 0 ? args[0] : "";
+		
+		Options options = new OptionsBuilder()
+								.include(BenchmarkRunner.class.getPackage().getName() + ".*" + include)
+								.addProfiler(GCProfiler.class)
+								.resultFormat(ResultFormatType.JSON)
+								.result("target/jmh-result.json")
+								.build();
+		
+		new Runner(options).run();
+	}
+	
+}
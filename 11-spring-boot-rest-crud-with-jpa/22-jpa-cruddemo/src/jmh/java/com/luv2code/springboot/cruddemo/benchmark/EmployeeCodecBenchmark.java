@@ -0,0 +1,126 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.luv2code.springboot.cruddemo.entity.Employee;
+import com.luv2code.springboot.cruddemo.protobuf.EmployeeProtobufHttpMessageConverter;
+
+// encode/decode cost of each response format, through the same HttpMessageConverters the controller uses
+// ... a single employee (GET /api/employees/{id}) and a 10k list (GET /api/employees)
+//
+// payload sizes are printed once per trial, gc.alloc.rate.norm in the report is the garbage per call
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EmployeeCodecBenchmark {
+
+	private static final Type EMPLOYEE_LIST = new ParameterizedTypeReference<List<Employee>>() {}.getType();
+	
+	@Param({ "json", "smile", "cbor", "protobuf" })
+	public String format;
+	
+	@Param({ "1", "10000" })
+	public int employeeCount;
+	
+	private GenericHttpMessageConverter<Object> converter;
+	
+	private MediaType mediaType;
+	
+	private Object payload;
+	
+	private Type payloadType;
+	
+	private byte[] encoded;
+	
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		
+		switch (format) {
+			case "json":
+				converter = new MappingJackson2HttpMessageConverter();
+				mediaType = MediaType.APPLICATION_JSON;
+				break;
+			case "smile":
+				converter = new MappingJackson2SmileHttpMessageConverter();
+				mediaType = new MediaType("application", "x-jackson-smile");
+				break;
+			case "cbor":
+				converter = new MappingJackson2CborHttpMessageConverter();
+				mediaType = new MediaType("application", "cbor");
+				break;
+			default:
+				converter = new EmployeeProtobufHttpMessageConverter();
+				mediaType = EmployeeProtobufHttpMessageConverter.PROTOBUF;
+		}
+		
+		List<Employee> employees = new ArrayList<>(employeeCount);
+		
+		for (int i = 1; i <= employeeCount; i++) {
+			Employee theEmployee = new Employee("First" + i, "Last" + i, "employee" + i + "@luv2code.com");
+			theEmployee.setId(i);
+			employees.add(theEmployee);
+		}
+		
+		if (employeeCount == 1) {
+			payload = employees.get(0);
+			payloadType = Employee.class;
+		}
+		else {
+			payload = employees;
+			payloadType = EMPLOYEE_LIST;
+		}
+		
+		encoded = encode();
+		
+		System.out.println();
+		System.out.println(format + " x " + employeeCount + ": " + encoded.length + " bytes");
+	}
+	
+	@Benchmark
+	public byte[] encode() throws IOException {
+		
+		MockHttpOutputMessage output = new MockHttpOutputMessage();
+		
+		converter.write(payload, payloadType, mediaType, output);
+		
+		return output.getBodyAsBytes();
+	}
+	
+	@Benchmark
+	public Object decode() throws IOException {
+		
+		MockHttpInputMessage input = new MockHttpInputMessage(encoded);
+		input.getHeaders().setContentType(mediaType);
+		
+		return converter.read(payloadType, null, input);
+	}
+	
+}
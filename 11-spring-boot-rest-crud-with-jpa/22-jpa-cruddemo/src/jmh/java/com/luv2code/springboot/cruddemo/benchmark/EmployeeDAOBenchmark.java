@@ -0,0 +1,128 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.luv2code.springboot.cruddemo.CruddemoApplication;
+import com.luv2code.springboot.cruddemo.dao.EmployeeDAO;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+// throughput plus sampled latency (p50/p90/p99/p999 in the report) for each DAO implementation
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class EmployeeDAOBenchmark {
+
+	// bean names of the two EmployeeDAO implementations
+	@Param({ "employeeDAOHibernateImpl", "employeeDAOJpaImpl" })
+	public String daoBeanName;
+	
+	@Param({ "1000", "100000", "1000000" })
+	public int rowCount;
+	
+	private ConfigurableApplicationContext context;
+	
+	private EmployeeDAO employeeDAO;
+	
+	// the DAOs expect the service layer to open the transaction
+	private TransactionTemplate transactionTemplate;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		
+		context = new SpringApplicationBuilder(CruddemoApplication.class)
+						.profiles("benchmark")
+						.web(WebApplicationType.NONE)
+						.run();
+		
+		employeeDAO = context.getBean(daoBeanName, EmployeeDAO.class);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		
+		EmployeeDataSeeder.seed(context.getBean(JdbcTemplate.class), rowCount);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public List<Employee> findAll() {
+		return transactionTemplate.execute(status -> employeeDAO.findAll());
+	}
+	
+	@Benchmark
+	public Employee findById() {
+		
+		int theId = ThreadLocalRandom.current().nextInt(1, rowCount + 1);
+		
+		return transactionTemplate.execute(status -> employeeDAO.findById(theId));
+	}
+	
+	@Benchmark
+	public Employee save() {
+		
+		Employee theEmployee = new Employee("Bench", "Mark", "bench@luv2code.com");
+		
+		transactionTemplate.execute(status -> {
+			employeeDAO.save(theEmployee);
+			return null;
+		});
+		
+		return theEmployee;
+	}
+	
+	@Benchmark
+	public void deleteById(DeleteTarget target) {
+		
+		transactionTemplate.execute(status -> {
+			employeeDAO.deleteById(target.employeeId);
+			return null;
+		});
+	}
+	
+	// inserts a fresh row before each deleteById call so every call really deletes something
+	@State(Scope.Thread)
+	public static class DeleteTarget {
+		
+		private int employeeId;
+		
+		@Setup(Level.Invocation)
+		public void insert(EmployeeDAOBenchmark benchmark) {
+			
+			Employee theEmployee = new Employee("Delete", "Me", "delete@luv2code.com");
+			
+			benchmark.transactionTemplate.execute(status -> {
+				benchmark.employeeDAO.save(theEmployee);
+				return null;
+			});
+			
+			employeeId = theEmployee.getId();
+		}
+	}
+	
+}
@@ -0,0 +1,13 @@
+--
+-- H2 version of the employee table from employee.sql ... rows are seeded by EmployeeDataSeeder
+--
+
+DROP TABLE IF EXISTS employee;
+
+CREATE TABLE employee (
+  id int(11) NOT NULL AUTO_INCREMENT,
+  first_name varchar(45) DEFAULT NULL,
+  last_name varchar(45) DEFAULT NULL,
+  email varchar(45) DEFAULT NULL,
+  PRIMARY KEY (id)
+);
@@ -0,0 +1,29 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.luv2code.springboot.cruddemo.protobuf.EmployeeProtobufHttpMessageConverter;
+
+// binary formats for service-to-service callers, picked with the Accept / Content-Type header:
+//
+//   application/json          unchanged, still the default
+//   application/x-jackson-smile
+//   application/cbor
+//   application/x-protobuf    see src/main/proto/employee.proto
+//
+// Spring MVC registers the Smile and CBOR converters itself once jackson-dataformat-smile/cbor are
+// on the classpath, right after JSON. Protobuf is appended at the end here, so a request without
+// an Accept header (or */*) keeps getting JSON.
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new EmployeeProtobufHttpMessageConverter());
+	}
+	
+}
@@ -27,6 +27,11 @@ public class EmployeeDAOJpaImpl implements EmployeeDAO {
 		Query theQuery = 
 				entityManager.createQuery("from Employee");
 		
+		// cache the result when the query cache is enabled ...
+		// Hibernate drops it automatically whenever the employee table is written
+		theQuery.setHint("org.hibernate.cacheable", true);
+		theQuery.setHint("org.hibernate.cacheRegion", "employee-queries");
+		
 		// execute query and get result list
 		List<Employee> employees = theQuery.getResultList();
 		
@@ -1,5 +1,6 @@
 package com.luv2code.springboot.cruddemo.entity;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
@@ -7,8 +8,13 @@ import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 @Entity
 @Table(name="employee")
+@Cacheable
+@Cache(usage=CacheConcurrencyStrategy.READ_WRITE, region="employee")
 public class Employee {
 
 	// define fields
@@ -0,0 +1,128 @@
+package com.luv2code.springboot.cruddemo.protobuf;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+// reads and writes the messages in src/main/proto/employee.proto straight from/to the entity
+//
+// protobuf-java's coded streams instead of generated classes ... no protoc in the build and
+// no copying into a generated message first. Like proto3, default values (0, null) aren't written.
+public final class EmployeeProtobufCodec {
+
+	// Employee
+	private static final int ID = 1;
+	private static final int FIRST_NAME = 2;
+	private static final int LAST_NAME = 3;
+	private static final int EMAIL = 4;
+	
+	// EmployeeList
+	private static final int EMPLOYEES = 1;
+	
+	private EmployeeProtobufCodec() {
+	}
+	
+	public static void writeEmployee(Employee theEmployee, CodedOutputStream out) throws IOException {
+		
+		if (theEmployee.getId() != 0) {
+			out.writeInt32(ID, theEmployee.getId());
+		}
+		if (theEmployee.getFirstName() != null) {
+			out.writeString(FIRST_NAME, theEmployee.getFirstName());
+		}
+		if (theEmployee.getLastName() != null) {
+			out.writeString(LAST_NAME, theEmployee.getLastName());
+		}
+		if (theEmployee.getEmail() != null) {
+			out.writeString(EMAIL, theEmployee.getEmail());
+		}
+	}
+	
+	public static void writeEmployeeList(List<Employee> theEmployees, CodedOutputStream out) throws IOException {
+		
+		// each element is a length-delimited embedded message
+		for (Employee theEmployee : theEmployees) {
+			out.writeTag(EMPLOYEES, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			out.writeUInt32NoTag(employeeSize(theEmployee));
+			writeEmployee(theEmployee, out);
+		}
+	}
+	
+	public static int employeeSize(Employee theEmployee) {
+		
+		int size = 0;
+		
+		if (theEmployee.getId() != 0) {
+			size += CodedOutputStream.computeInt32Size(ID, theEmployee.getId());
+		}
+		if (theEmployee.getFirstName() != null) {
+			size += CodedOutputStream.computeStringSize(FIRST_NAME, theEmployee.getFirstName());
+		}
+		if (theEmployee.getLastName() != null) {
+			size += CodedOutputStream.computeStringSize(LAST_NAME, theEmployee.getLastName());
+		}
+		if (theEmployee.getEmail() != null) {
+			size += CodedOutputStream.computeStringSize(EMAIL, theEmployee.getEmail());
+		}
+		
+		return size;
+	}
+	
+	// reads until the end of the input (or the current limit, for an embedded message)
+	public static Employee readEmployee(CodedInputStream in) throws IOException {
+		
+		Employee theEmployee = new Employee();
+		
+		int tag;
+		
+		while ((tag = in.readTag()) != 0) {
+			
+			switch (WireFormat.getTagFieldNumber(tag)) {
+				case ID:
+					theEmployee.setId(in.readInt32());
+					break;
+				case FIRST_NAME:
+					theEmployee.setFirstName(in.readString());
+					break;
+				case LAST_NAME:
+					theEmployee.setLastName(in.readString());
+					break;
+				case EMAIL:
+					theEmployee.setEmail(in.readString());
+					break;
+				default:
+					// a field from a newer schema ... skip it
+					in.skipField(tag);
+			}
+		}
+		
+		return theEmployee;
+	}
+	
+	public static List<Employee> readEmployeeList(CodedInputStream in) throws IOException {
+		
+		List<Employee> theEmployees = new ArrayList<>();
+		
+		int tag;
+		
+		while ((tag = in.readTag()) != 0) {
+			
+			if (WireFormat.getTagFieldNumber(tag) != EMPLOYEES) {
+				in.skipField(tag);
+				continue;
+			}
+			
+			int limit = in.pushLimit(in.readRawVarint32());
+			theEmployees.add(readEmployee(in));
+			in.popLimit(limit);
+		}
+		
+		return theEmployees;
+	}
+	
+}
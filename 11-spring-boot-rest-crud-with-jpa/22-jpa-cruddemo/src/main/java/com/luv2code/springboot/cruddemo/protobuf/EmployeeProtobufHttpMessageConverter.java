@@ -0,0 +1,105 @@
+package com.luv2code.springboot.cruddemo.protobuf;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+// application/x-protobuf for an Employee or a List<Employee> ... see employee.proto
+public class EmployeeProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+	
+	private static final int BUFFER_SIZE = 8192;
+	
+	public EmployeeProtobufHttpMessageConverter() {
+		super(PROTOBUF);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return Employee.class == clazz;
+	}
+
+	@Override
+	public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+		return (isEmployee(type) || isEmployeeList(type)) && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+		
+		// no generic type ... only a plain Employee
+		if (type == null) {
+			return canWrite(clazz, mediaType);
+		}
+		
+		return (isEmployee(type) || isEmployeeList(type)) && canWrite(mediaType);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object t, Type type, HttpOutputMessage outputMessage)
+			throws IOException, HttpMessageNotWritableException {
+		
+		CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), BUFFER_SIZE);
+		
+		if (t instanceof Employee) {
+			EmployeeProtobufCodec.writeEmployee((Employee) t, out);
+		}
+		else {
+			EmployeeProtobufCodec.writeEmployeeList((List<Employee>) t, out);
+		}
+		
+		out.flush();
+	}
+
+	@Override
+	protected Object readInternal(Class<? extends Object> clazz, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		
+		return EmployeeProtobufCodec.readEmployee(CodedInputStream.newInstance(inputMessage.getBody()));
+	}
+
+	@Override
+	public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+			throws IOException, HttpMessageNotReadableException {
+		
+		CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+		
+		if (isEmployeeList(type)) {
+			return EmployeeProtobufCodec.readEmployeeList(in);
+		}
+		
+		return EmployeeProtobufCodec.readEmployee(in);
+	}
+	
+	private static boolean isEmployee(Type type) {
+		return type == Employee.class;
+	}
+	
+	// List<Employee>, as the controller declares it
+	private static boolean isEmployeeList(Type type) {
+		
+		if (!(type instanceof ParameterizedType)) {
+			return false;
+		}
+		
+		ParameterizedType parameterized = (ParameterizedType) type;
+		
+		return parameterized.getRawType() == List.class
+				&& parameterized.getActualTypeArguments()[0] == Employee.class;
+	}
+	
+}
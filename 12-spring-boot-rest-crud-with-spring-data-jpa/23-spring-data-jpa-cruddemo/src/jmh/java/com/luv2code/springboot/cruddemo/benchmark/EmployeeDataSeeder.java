@@ -0,0 +1,52 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class EmployeeDataSeeder {
+
+	// the sample rows from employee.sql ... repeated with a numeric suffix to reach the row count
+	private static final String[][] SAMPLE_EMPLOYEES = {
+			{ "Leslie", "Andrews", "leslie" },
+			{ "Emma", "Baumgarten", "emma" },
+			{ "Avani", "Gupta", "avani" },
+			{ "Yuri", "Petrov", "yuri" },
+			{ "Juan", "Vega", "juan" }
+	};
+	
+	private static final int BATCH_SIZE = 10_000;
+	
+	private EmployeeDataSeeder() {
+		
+	}
+
+	public static void seed(JdbcTemplate jdbcTemplate, int rowCount) {
+		
+		List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+		
+		for (int i = 0; i < rowCount; i++) {
+			
+			String[] sample = SAMPLE_EMPLOYEES[i % SAMPLE_EMPLOYEES.length];
+			
+			batch.add(new Object[] { sample[0] + i, sample[1] + i, sample[2] + i + "@luv2code.com" });
+			
+			if (batch.size() == BATCH_SIZE) {
+				insert(jdbcTemplate, batch);
+			}
+		}
+		
+		insert(jdbcTemplate, batch);
+	}
+
+	private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+		
+		if (!batch.isEmpty()) {
+			jdbcTemplate.batchUpdate(
+					"insert into employee (first_name, last_name, email) values (?, ?, ?)", batch);
+			batch.clear();
+		}
+	}
+	
+}
@@ -0,0 +1,101 @@
+package com.luv2code.springboot.cruddemo.benchmark;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.luv2code.springboot.cruddemo.CruddemoApplication;
+import com.luv2code.springboot.cruddemo.dao.EmployeeRepository;
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+// same harness as EmployeeDAOBenchmark in 22-jpa-cruddemo ... so the numbers line up
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class EmployeeRepositoryBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	public int rowCount;
+	
+	private ConfigurableApplicationContext context;
+	
+	// Spring Data repository methods run in their own transaction ... no template needed
+	private EmployeeRepository employeeRepository;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		
+		context = new SpringApplicationBuilder(CruddemoApplication.class)
+						.profiles("benchmark")
+						.web(WebApplicationType.NONE)
+						.run();
+		
+		employeeRepository = context.getBean(EmployeeRepository.class);
+		
+		EmployeeDataSeeder.seed(context.getBean(JdbcTemplate.class), rowCount);
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+	
+	@Benchmark
+	public List<Employee> findAll() {
+		return employeeRepository.findAll();
+	}
+	
+	@Benchmark
+	public Optional<Employee> findById() {
+		return employeeRepository.findById(ThreadLocalRandom.current().nextInt(1, rowCount + 1));
+	}
+	
+	@Benchmark
+	public Employee save() {
+		return employeeRepository.save(new Employee("Bench", "Mark", "bench@luv2code.com"));
+	}
+	
+	@Benchmark
+	public void deleteById(DeleteTarget target) {
+		employeeRepository.deleteById(target.employeeId);
+	}
+	
+	// inserts a fresh row before each deleteById call so every call really deletes something
+	@State(Scope.Thread)
+	public static class DeleteTarget {
+		
+		private int employeeId;
+		
+		@Setup(Level.Invocation)
+		public void insert(EmployeeRepositoryBenchmark benchmark) {
+			
+			Employee theEmployee = 
+					benchmark.employeeRepository.save(new Employee("Delete", "Me", "delete@luv2code.com"));
+			
+			employeeId = theEmployee.getId();
+		}
+	}
+	
+}
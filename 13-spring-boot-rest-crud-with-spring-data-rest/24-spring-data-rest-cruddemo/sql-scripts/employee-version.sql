@@ -0,0 +1,12 @@
+USE `employee_directory`;
+
+--
+-- Version and last-modified columns for `employee`
+--
+-- Spring Data REST sends the version as the ETag and last_modified as Last-Modified,
+-- and answers If-None-Match / If-Modified-Since with 304 and If-Match with 412.
+--
+
+ALTER TABLE `employee`
+  ADD COLUMN `version` int(11) NOT NULL DEFAULT 0,
+  ADD COLUMN `last_modified` datetime(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3);
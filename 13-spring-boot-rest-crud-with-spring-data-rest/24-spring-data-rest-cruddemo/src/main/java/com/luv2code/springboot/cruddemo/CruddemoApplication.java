@@ -2,8 +2,11 @@ package com.luv2code.springboot.cruddemo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 
 @SpringBootApplication
+// fills in Employee.lastModified on every save
+@EnableJpaAuditing
 public class CruddemoApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,94 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.io.IOException;
+import java.util.Map;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// adds a Cache-Control header to GET/HEAD responses ... the first pattern that matches the path picks the policy
+//
+// A filter rather than an interceptor so it also covers the Spring Data REST handler mappings.
+// Errors are never cached: a 4xx/5xx switches the header to no-store.
+public class CacheControlFilter extends OncePerRequestFilter {
+
+	private final PathMatcher pathMatcher = new AntPathMatcher();
+	
+	// path pattern -> Cache-Control value, in match order
+	private final Map<String, String> policies;
+	
+	public CacheControlFilter(Map<String, String> thePolicies) {
+		policies = thePolicies;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		
+		String policy = null;
+		
+		if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+			policy = findPolicy(request.getRequestURI().substring(request.getContextPath().length()));
+		}
+		
+		if (policy == null) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		
+		response.setHeader(HttpHeaders.CACHE_CONTROL, policy);
+		
+		filterChain.doFilter(request, new NoStoreOnErrorResponse(response));
+	}
+	
+	private String findPolicy(String path) {
+		
+		for (Map.Entry<String, String> policy : policies.entrySet()) {
+			if (pathMatcher.match(policy.getKey(), path)) {
+				return policy.getValue();
+			}
+		}
+		
+		return null;
+	}
+	
+	private static class NoStoreOnErrorResponse extends HttpServletResponseWrapper {
+		
+		NoStoreOnErrorResponse(HttpServletResponse response) {
+			super(response);
+		}
+
+		@Override
+		public void setStatus(int sc) {
+			noStoreIfError(sc);
+			super.setStatus(sc);
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			noStoreIfError(sc);
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			noStoreIfError(sc);
+			super.sendError(sc, msg);
+		}
+		
+		private void noStoreIfError(int sc) {
+			if (sc >= 400) {
+				setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+			}
+		}
+	}
+	
+}
@@ -0,0 +1,52 @@
+package com.luv2code.springboot.cruddemo.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Cache-Control per kind of resource under the Spring Data REST base path
+//
+// ETag / Last-Modified and the 304s come from Spring Data REST itself (Employee's @Version and
+// @LastModifiedDate), this just tells clients how long they may reuse a response before asking again.
+@Configuration
+public class HttpCachingConfig {
+
+	@Value("${spring.data.rest.base-path:}")
+	private String basePath;
+	
+	// a single employee ... has an ETag, so revalidating once it's stale is cheap
+	@Value("${app.cache-control.employee:max-age=10, must-revalidate}")
+	private String employeePolicy;
+	
+	// pages and searches ... no ETag and they change with any write, so only very briefly
+	@Value("${app.cache-control.employees:max-age=5}")
+	private String employeesPolicy;
+	
+	// the root links and ALPS metadata only change on redeploy
+	@Value("${app.cache-control.metadata:max-age=3600}")
+	private String metadataPolicy;
+	
+	@Bean
+	public FilterRegistrationBean<CacheControlFilter> cacheControlFilter() {
+		
+		// first match wins ... so search comes before the single employee pattern
+		Map<String, String> policies = new LinkedHashMap<>();
+		policies.put(basePath + "/employees/search/**", employeesPolicy);
+		policies.put(basePath + "/employees/*", employeePolicy);
+		policies.put(basePath + "/employees", employeesPolicy);
+		policies.put(basePath + "/profile/**", metadataPolicy);
+		policies.put(basePath + "/", metadataPolicy);
+		policies.put(basePath, metadataPolicy);
+		
+		FilterRegistrationBean<CacheControlFilter> registration = 
+				new FilterRegistrationBean<>(new CacheControlFilter(policies));
+		registration.addUrlPatterns(basePath + "/*");
+		
+		return registration;
+	}
+	
+}
@@ -3,9 +3,13 @@ package com.luv2code.springboot.cruddemo.dao;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
 import com.luv2code.springboot.cruddemo.entity.Employee;
+import com.luv2code.springboot.cruddemo.projection.EmployeeSummary;
 
+// collection pages only carry the summary of each employee ... follow its self link for the rest
+@RepositoryRestResource(excerptProjection=EmployeeSummary.class)
 public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
 
 	// that's it ... no need to write any code LOL!
@@ -1,14 +1,26 @@
 package com.luv2code.springboot.cruddemo.entity;
 
+import java.util.Date;
+
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
+
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
 @Table(name="employee")
+@EntityListeners(AuditingEntityListener.class)
 public class Employee {
 
 	// define fields
@@ -27,6 +39,19 @@ public class Employee {
 	@Column(name="email")
 	private String email;
 	
+	// Spring Data REST turns these into the ETag and Last-Modified headers ... and checks
+	// If-Match / If-None-Match / If-Modified-Since against them, so they stay out of the body
+	@Version
+	@Column(name="version")
+	@JsonIgnore
+	private int version;
+	
+	@LastModifiedDate
+	@Temporal(TemporalType.TIMESTAMP)
+	@Column(name="last_modified")
+	@JsonIgnore
+	private Date lastModified;
+	
 		
 	// define constructors
 	
@@ -74,6 +99,22 @@ public class Employee {
 		this.email = email;
 	}
 
+	public int getVersion() {
+		return version;
+	}
+
+	public void setVersion(int version) {
+		this.version = version;
+	}
+
+	public Date getLastModified() {
+		return lastModified;
+	}
+
+	public void setLastModified(Date lastModified) {
+		this.lastModified = lastModified;
+	}
+
 	// define tostring
 
 	@Override
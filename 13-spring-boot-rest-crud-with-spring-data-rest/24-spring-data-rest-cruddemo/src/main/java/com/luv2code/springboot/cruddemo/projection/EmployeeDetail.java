@@ -0,0 +1,19 @@
+package com.luv2code.springboot.cruddemo.projection;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+// every field ... ask for it with ?projection=detail to get full records on a collection page
+@Projection(name="detail", types=Employee.class)
+public interface EmployeeDetail {
+
+	int getId();
+	
+	String getFirstName();
+	
+	String getLastName();
+	
+	String getEmail();
+	
+}
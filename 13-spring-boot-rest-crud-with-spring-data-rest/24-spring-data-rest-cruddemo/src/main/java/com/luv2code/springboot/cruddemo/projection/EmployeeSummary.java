@@ -0,0 +1,17 @@
+package com.luv2code.springboot.cruddemo.projection;
+
+import org.springframework.data.rest.core.config.Projection;
+
+import com.luv2code.springboot.cruddemo.entity.Employee;
+
+// what each employee looks like on collection pages (the repository's excerpt) ... just id and name
+@Projection(name="summary", types=Employee.class)
+public interface EmployeeSummary {
+
+	int getId();
+	
+	String getFirstName();
+	
+	String getLastName();
+	
+}
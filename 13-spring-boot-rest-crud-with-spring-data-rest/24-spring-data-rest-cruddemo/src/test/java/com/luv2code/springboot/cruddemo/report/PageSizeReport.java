@@ -0,0 +1,144 @@
+package com.luv2code.springboot.cruddemo.report;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Bytes per page and response time for /magic-api/employees, against a running app:
+ *
+ *  - full       every field of every employee (?projection=detail ... what collection pages used to send)
+ *  - summary    the excerpt projection collection pages send now (id and name)
+ *  - 304        revalidating one employee with the ETag it came with
+ *
+ * The times are the median per request seen by this client, so they include the database read ...
+ * run it a couple of times and look at the difference between the two page shapes. Run with:
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test
+ *       -Dexec.mainClass=com.luv2code.springboot.cruddemo.report.PageSizeReport
+ *       -Dexec.args="http://localhost:8080/magic-api 100 200"
+ *
+ * (base url, page size, requests per measurement)
+ */
+public class PageSizeReport {
+
+	public static void main(String[] args) throws IOException {
+
+		String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080/magic-api";
+		int pageSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		int requests = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+		String pageUrl = baseUrl + "/employees?size=" + pageSize;
+
+		System.out.println("page size=" + pageSize + ", " + requests + " requests each");
+		System.out.println();
+
+		measure("full", pageUrl + "&projection=detail", null, requests);
+		measure("summary", pageUrl, null, requests);
+
+		// first employee on the page ... fetch once for its ETag, then revalidate
+		String itemUrl = baseUrl + "/employees/" + firstId(fetch(pageUrl, null).body);
+		String eTag = fetch(itemUrl, null).eTag;
+
+		measure("item", itemUrl, null, requests);
+		measure("item 304", itemUrl, eTag, requests);
+	}
+
+	private static void measure(String name, String url, String ifNoneMatch, int requests) throws IOException {
+
+		// warm up the server and the connection pool first
+		for (int i = 0; i < Math.min(requests, 20); i++) {
+			fetch(url, ifNoneMatch);
+		}
+
+		long[] nanos = new long[requests];
+		Response last = null;
+
+		for (int i = 0; i < requests; i++) {
+			long begin = System.nanoTime();
+			last = fetch(url, ifNoneMatch);
+			nanos[i] = System.nanoTime() - begin;
+		}
+
+		Arrays.sort(nanos);
+
+		System.out.println(String.format("%-10s status=%d  %8d bytes   median %.2f ms   p99 %.2f ms   Cache-Control: %s",
+											name, last.status, last.body.length,
+											nanos[requests / 2] / 1_000_000.0,
+											nanos[(int) Math.ceil(requests * 0.99) - 1] / 1_000_000.0,
+											last.cacheControl));
+	}
+
+	private static Response fetch(String url, String ifNoneMatch) throws IOException {
+
+		HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+		connection.setRequestProperty("Accept", "application/hal+json");
+
+		if (ifNoneMatch != null) {
+			connection.setRequestProperty("If-None-Match", ifNoneMatch);
+		}
+
+		Response response = new Response();
+		response.status = connection.getResponseCode();
+		response.eTag = connection.getHeaderField("ETag");
+		response.cacheControl = connection.getHeaderField("Cache-Control");
+
+		// no body on a 304
+		InputStream in = response.status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+
+		if (in != null) {
+			try (InputStream body = in) {
+				response.body = readAll(body);
+			}
+		}
+
+		return response;
+	}
+
+	private static byte[] readAll(InputStream in) throws IOException {
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] buffer = new byte[8192];
+		int read;
+
+		while ((read = in.read(buffer)) != -1) {
+			out.write(buffer, 0, read);
+		}
+
+		return out.toByteArray();
+	}
+
+	// just enough parsing to find the first "id" on the page
+	private static int firstId(byte[] page) {
+
+		String json = new String(page, StandardCharsets.UTF_8);
+
+		int key = json.indexOf("\"id\"");
+
+		if (key < 0) {
+			throw new IllegalStateException("No employees on the page");
+		}
+
+		int start = json.indexOf(':', key) + 1;
+		int end = start;
+
+		while (end < json.length() && (Character.isDigit(json.charAt(end)) || json.charAt(end) == ' ')) {
+			end++;
+		}
+
+		return Integer.parseInt(json.substring(start, end).trim());
+	}
+
+	private static class Response {
+
+		private int status;
+		private String eTag;
+		private String cacheControl;
+		private byte[] body = new byte[0];
+	}
+
+}
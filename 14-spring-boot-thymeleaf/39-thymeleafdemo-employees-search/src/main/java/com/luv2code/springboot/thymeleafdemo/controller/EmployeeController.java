@@ -1,9 +1,18 @@
 package com.luv2code.springboot.thymeleafdemo.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.List;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -20,26 +29,108 @@ import com.luv2code.springboot.thymeleafdemo.service.EmployeeService;
 @RequestMapping("/employees")
 public class EmployeeController {
 
+	private static final List<String> SORTABLE_FIELDS = Arrays.asList("firstName", "lastName", "email");
+	
+	private static final int MAX_PAGE_SIZE = 200;
+	
+	private static final int MAX_CHUNK_SIZE = 1000;
+	
 	private EmployeeService employeeService;
 	
-	public EmployeeController(EmployeeService theEmployeeService) {
+	private SearchHeaderCache searchHeaderCache;
+	
+	public EmployeeController(EmployeeService theEmployeeService, SearchHeaderCache theSearchHeaderCache) {
 		employeeService = theEmployeeService;
+		searchHeaderCache = theSearchHeaderCache;
 	}
 	
 	// add mapping for "/list"
 
 	@GetMapping("/list")
-	public String listEmployees(Model theModel) {
+	public String listEmployees(@RequestParam(name="page", defaultValue="0") int thePage,
+								@RequestParam(name="size", defaultValue="50") int theSize,
+								@RequestParam(name="sort", defaultValue="lastName") String theSort,
+								@RequestParam(name="dir", defaultValue="asc") String theDir,
+								HttpServletRequest theRequest,
+								HttpServletResponse theResponse,
+								Model theModel) {
+		
+		theSort = sortableField(theSort);
+		Sort.Direction direction = sortDirection(theDir);
+		
+		// id as a tie-breaker keeps the order stable across pages
+		PageRequest pageRequest = PageRequest.of(Math.max(thePage, 0),
+									Math.min(Math.max(theSize, 1), MAX_PAGE_SIZE),
+									Sort.by(direction, theSort).and(Sort.by("id")));
 		
-		// get employees from db
-		List<Employee> theEmployees = employeeService.findAll();
+		// get one page of employees from db
+		Slice<Employee> theEmployeeSlice = employeeService.findAll(pageRequest);
 		
 		// add to the spring model
+		theModel.addAttribute("employees", theEmployeeSlice.getContent());
+		theModel.addAttribute("employeeSlice", theEmployeeSlice);
+		theModel.addAttribute("sort", theSort);
+		theModel.addAttribute("dir", direction == Sort.Direction.DESC ? "desc" : "asc");
+		theModel.addAttribute("size", pageRequest.getPageSize());
+		theModel.addAttribute("listPath", "/employees/list");
+		theModel.addAttribute("searchHeader", searchHeaderCache.render(theRequest, theResponse));
+		
+		return "employees/list-employees";
+	}
+	
+	// the whole directory on one page ... streamed instead of paged
+	//
+	// Rows are read a chunk at a time with keyset queries while the template iterates, and the response
+	// is flushed before each chunk is read. So the browser gets the top of the page straight away and
+	// the server only ever holds one chunk, however many employees there are.
+	// Once the first flush has gone out the status is committed ... an error part way through just ends the page.
+	@GetMapping("/listAll")
+	public String listAllEmployees(@RequestParam(name="size", defaultValue="200") int theChunkSize,
+									@RequestParam(name="sort", defaultValue="lastName") String theSort,
+									@RequestParam(name="dir", defaultValue="asc") String theDir,
+									HttpServletRequest theRequest,
+									HttpServletResponse theResponse,
+									Model theModel) {
+		
+		theSort = sortableField(theSort);
+		Sort.Direction direction = sortDirection(theDir);
+		
+		int chunkSize = Math.min(Math.max(theChunkSize, 1), MAX_CHUNK_SIZE);
+		
+		// nothing is read yet ... the template pulls the chunks
+		Iterable<Employee> theEmployees = 
+				employeeService.findAllInChunks(theSort, direction, chunkSize, () -> flush(theResponse));
+		
 		theModel.addAttribute("employees", theEmployees);
+		theModel.addAttribute("sort", theSort);
+		theModel.addAttribute("dir", direction == Sort.Direction.DESC ? "desc" : "asc");
+		theModel.addAttribute("size", chunkSize);
+		theModel.addAttribute("listPath", "/employees/listAll");
+		theModel.addAttribute("searchHeader", searchHeaderCache.render(theRequest, theResponse));
 		
 		return "employees/list-employees";
 	}
 	
+	// only allow sorting on the columns we show ... fall back to last name
+	private static String sortableField(String theSort) {
+		return SORTABLE_FIELDS.contains(theSort) ? theSort : "lastName";
+	}
+	
+	private static Sort.Direction sortDirection(String theDir) {
+		return "desc".equalsIgnoreCase(theDir) ? Sort.Direction.DESC : Sort.Direction.ASC;
+	}
+	
+	// Thymeleaf writes straight to the response writer, so this pushes out every row rendered so far
+	private static void flush(HttpServletResponse theResponse) {
+		try {
+			theResponse.flushBuffer();
+		}
+		catch (IOException exc) {
+			// most likely the browser went away ... stop reading more chunks
+			throw new UncheckedIOException(exc);
+		}
+	}
+	
 	@GetMapping("/showFormForAdd")
 	public String showFormForAdd(Model theModel) {
 		
@@ -99,6 +190,8 @@ public class EmployeeController {
 	@GetMapping("/search")
 	public String search(@RequestParam("firstName") String theFirstName,
 						 @RequestParam("lastName") String theLastName,
+						 @RequestParam(name="page", defaultValue="0") int thePage,
+						 @RequestParam(name="size", defaultValue="50") int theSize,
 						 Model theModel) {
 		
 		// check names, if both are empty then just give list of all employees
@@ -107,12 +200,18 @@ public class EmployeeController {
 			return "redirect:/employees/list";
 		}
 		else {
-			// else, search by first name and last name
-			List<Employee> theEmployees =
-							employeeService.searchBy(theFirstName, theLastName);
+			// else, search by first name and last name ... best matches first, one page at a time
+			// same limits as the list page ... a huge size would size the result list too
+			Page<Employee> theEmployeePage =
+							employeeService.searchBy(theFirstName, theLastName,
+													PageRequest.of(Math.max(thePage, 0),
+																Math.min(Math.max(theSize, 1), MAX_PAGE_SIZE)));
 			
 			// add to the spring model
-			theModel.addAttribute("employees", theEmployees);
+			theModel.addAttribute("employees", theEmployeePage.getContent());
+			theModel.addAttribute("employeePage", theEmployeePage);
+			theModel.addAttribute("firstName", theFirstName);
+			theModel.addAttribute("lastName", theLastName);
 			
 			// send to list-employees
 			return "employees/list-employees";
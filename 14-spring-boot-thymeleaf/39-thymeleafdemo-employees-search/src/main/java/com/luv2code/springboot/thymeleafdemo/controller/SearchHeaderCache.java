@@ -0,0 +1,59 @@
+package com.luv2code.springboot.thymeleafdemo.controller;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.ISpringTemplateEngine;
+
+// rendered html of the heading and empty search form at the top of the list pages
+//
+// Without search text the fragment only depends on the context path (for the @{...} links),
+// so it is rendered once and reused. The search results page shows the search text in the form,
+// so that still renders the fragment inline. Off when template caching is off (devtools) so edits show up.
+@Component
+public class SearchHeaderCache {
+
+	private static final String TEMPLATE = "employees/fragments/search-header";
+	private static final String FRAGMENT = "header";
+	
+	private ISpringTemplateEngine templateEngine;
+	
+	private boolean enabled;
+	
+	// keyed by context path
+	private final Map<String, String> cache = new ConcurrentHashMap<>();
+	
+	@Autowired
+	public SearchHeaderCache(ISpringTemplateEngine theTemplateEngine,
+							@Value("${spring.thymeleaf.cache:true}") boolean theEnabled) {
+		templateEngine = theTemplateEngine;
+		enabled = theEnabled;
+	}
+	
+	public String render(HttpServletRequest theRequest, HttpServletResponse theResponse) {
+		
+		if (!enabled) {
+			return process(theRequest, theResponse);
+		}
+		
+		return cache.computeIfAbsent(theRequest.getContextPath(), key -> process(theRequest, theResponse));
+	}
+	
+	private String process(HttpServletRequest theRequest, HttpServletResponse theResponse) {
+		
+		WebContext context = new WebContext(theRequest, theResponse, theRequest.getServletContext(),
+											LocaleContextHolder.getLocale());
+		
+		return templateEngine.process(TEMPLATE, Collections.singleton(FRAGMENT), context);
+	}
+	
+}
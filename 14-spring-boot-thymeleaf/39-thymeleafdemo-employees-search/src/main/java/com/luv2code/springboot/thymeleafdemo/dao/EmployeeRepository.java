@@ -2,19 +2,31 @@ package com.luv2code.springboot.thymeleafdemo.dao;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.luv2code.springboot.thymeleafdemo.entity.Employee;
 
-public interface EmployeeRepository extends JpaRepository<Employee, Integer> {
+public interface EmployeeRepository extends JpaRepository<Employee, Integer>, EmployeeRepositoryCustom {
 
 	// that's it ... no need to write any code LOL!
 	
 	// add a method to sort by last name
 	public List<Employee> findAllByOrderByLastNameAsc();
 
+	// one page of employees ... a Slice reads one extra row to know if there is a next page,
+	// so there is no COUNT(*) over the whole table
+	public Slice<Employee> findAllBy(Pageable pageable);
+
+	// keyset read in id order ... the next employees after theId, straight off the primary key,
+	// no OFFSET to skip over and no COUNT(*) (only the page size of the Pageable is used)
+	public List<Employee> findByIdGreaterThanOrderByIdAsc(int theId, Pageable pageable);
+
 	// add a method to search by first name and last name
-	public List<Employee> findByFirstNameContainsAndLastNameContainsAllIgnoreCase(
-									String theFirstName, String theLastName);
+	// paginated ... used while the in-memory search index is still loading
+	public Page<Employee> findByFirstNameContainsAndLastNameContainsAllIgnoreCase(
+									String theFirstName, String theLastName, Pageable pageable);
 	
 }
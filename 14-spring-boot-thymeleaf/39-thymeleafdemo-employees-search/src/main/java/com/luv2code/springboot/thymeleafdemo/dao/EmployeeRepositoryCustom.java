@@ -0,0 +1,16 @@
+package com.luv2code.springboot.thymeleafdemo.dao;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+
+import com.luv2code.springboot.thymeleafdemo.entity.Employee;
+
+public interface EmployeeRepositoryCustom {
+
+	// keyset read of the next chunk in (sortField, id) order ... pass null for the first chunk
+	// the rows come back detached, so a long listing doesn't pile up in the persistence context
+	public List<Employee> findChunkAfter(Employee theLastEmployee, String sortField,
+										Sort.Direction direction, int maxResults);
+	
+}
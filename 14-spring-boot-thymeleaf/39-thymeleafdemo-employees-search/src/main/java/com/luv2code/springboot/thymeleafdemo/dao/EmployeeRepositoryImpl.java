@@ -0,0 +1,84 @@
+package com.luv2code.springboot.thymeleafdemo.dao;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.TypedQuery;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.luv2code.springboot.thymeleafdemo.entity.Employee;
+
+// picked up by Spring Data as the implementation of EmployeeRepositoryCustom
+public class EmployeeRepositoryImpl implements EmployeeRepositoryCustom {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Override
+	@Transactional(readOnly=true)
+	public List<Employee> findChunkAfter(Employee theLastEmployee, String sortField,
+										Sort.Direction direction, int maxResults) {
+		
+		// the field name goes into the query text ... so only ever one of the columns we know
+		String column = "e." + checkSortField(sortField);
+		String order = direction == Sort.Direction.DESC ? "desc" : "asc";
+		String after = direction == Sort.Direction.DESC ? "<" : ">";
+		
+		// same order as the paged list: the sort column, then id ascending as the tie-breaker
+		StringBuilder jpql = new StringBuilder("from Employee e");
+		
+		if (theLastEmployee != null) {
+			jpql.append(" where ").append(column).append(' ').append(after).append(" :value")
+				.append(" or (").append(column).append(" = :value and e.id > :id)");
+		}
+		
+		jpql.append(" order by ").append(column).append(' ').append(order).append(", e.id asc");
+		
+		TypedQuery<Employee> theQuery = entityManager.createQuery(jpql.toString(), Employee.class);
+		
+		if (theLastEmployee != null) {
+			theQuery.setParameter("value", sortValue(theLastEmployee, sortField));
+			theQuery.setParameter("id", theLastEmployee.getId());
+		}
+		
+		theQuery.setMaxResults(maxResults);
+		theQuery.setHint("org.hibernate.readOnly", true);
+		
+		List<Employee> employees = theQuery.getResultList();
+		
+		// with open-in-view the entity manager lives for the whole render ... let these rows go
+		for (Employee theEmployee : employees) {
+			entityManager.detach(theEmployee);
+		}
+		
+		return employees;
+	}
+	
+	private static String checkSortField(String sortField) {
+		
+		switch (sortField) {
+			case "firstName":
+			case "lastName":
+			case "email":
+				return sortField;
+			default:
+				throw new IllegalArgumentException("Cannot sort employees by - " + sortField);
+		}
+	}
+	
+	private static String sortValue(Employee theEmployee, String sortField) {
+		
+		switch (sortField) {
+			case "firstName":
+				return theEmployee.getFirstName();
+			case "email":
+				return theEmployee.getEmail();
+			default:
+				return theEmployee.getLastName();
+		}
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.luv2code.springboot.thymeleafdemo.service;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiFunction;
+
+// an Iterable that only ever holds one chunk in memory
+//
+// the next chunk is fetched when the current one runs out, given the last element seen and the chunk size,
+// so a template can th:each over a whole table while rows are read from the database as it goes.
+// beforeEachChunk runs just before each fetch ... the view uses it to flush what it has rendered so far
+public class ChunkedIterable<T> implements Iterable<T> {
+
+	private final int chunkSize;
+	
+	private final BiFunction<T, Integer, List<T>> fetcher;
+	
+	private final Runnable beforeEachChunk;
+	
+	public ChunkedIterable(int chunkSize, BiFunction<T, Integer, List<T>> fetcher, Runnable beforeEachChunk) {
+		this.chunkSize = chunkSize;
+		this.fetcher = fetcher;
+		this.beforeEachChunk = beforeEachChunk;
+	}
+
+	@Override
+	public Iterator<T> iterator() {
+		
+		return new Iterator<T>() {
+			
+			private List<T> chunk;
+			private int index;
+			private T last;
+			
+			@Override
+			public boolean hasNext() {
+				
+				if (chunk != null && index < chunk.size()) {
+					return true;
+				}
+				
+				// a short chunk was the end of the table ... no need for another round trip
+				if (chunk != null && chunk.size() < chunkSize) {
+					return false;
+				}
+				
+				beforeEachChunk.run();
+				
+				List<T> next = fetcher.apply(last, chunkSize);
+				
+				chunk = next == null ? Collections.emptyList() : next;
+				index = 0;
+				
+				return !chunk.isEmpty();
+			}
+
+			@Override
+			public T next() {
+				
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				
+				last = chunk.get(index++);
+				
+				return last;
+			}
+		};
+	}
+	
+}
@@ -0,0 +1,423 @@
+package com.luv2code.springboot.thymeleafdemo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import com.luv2code.springboot.thymeleafdemo.dao.EmployeeRepository;
+import com.luv2code.springboot.thymeleafdemo.entity.Employee;
+
+// in-memory trigram index over employee first and last names
+//
+// A "contains" search only has to look at employees that have every trigram of the search text,
+// so it starts from the shortest posting list and checks just those candidates. At least one of
+// the names has to be a trigram long for that (see canSearch) ... shorter search text would mean
+// checking every entry under the read lock, so those searches stay on the database.
+// The index is loaded in the background at startup; until then searches go to the database.
+@Component
+public class EmployeeSearchIndex {
+
+	private static final int GRAM_LENGTH = 3;
+	
+	private static final int LOAD_BATCH_SIZE = 10_000;
+	
+	private static final int SCORE_EXACT = 3;
+	private static final int SCORE_PREFIX = 2;
+	private static final int SCORE_CONTAINS = 1;
+	
+	private Logger logger = Logger.getLogger(getClass().getName());
+	
+	private EmployeeRepository employeeRepository;
+	
+	// writes (save/delete) are rare compared to searches
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	
+	private final Map<Integer, Entry> entries = new HashMap<>();
+	private final Map<String, IntList> firstNameGrams = new HashMap<>();
+	private final Map<String, IntList> lastNameGrams = new HashMap<>();
+	
+	// ids deleted while the initial load is still running ... so the loader doesn't bring them back
+	private final Set<Integer> deletedWhileLoading = new HashSet<>();
+	
+	private volatile boolean ready;
+	
+	@Autowired
+	public EmployeeSearchIndex(EmployeeRepository theEmployeeRepository) {
+		employeeRepository = theEmployeeRepository;
+	}
+	
+	public boolean isReady() {
+		return ready;
+	}
+	
+	@EventListener(ApplicationReadyEvent.class)
+	public void loadInBackground() {
+		
+		Thread loader = new Thread(() -> {
+			try {
+				load();
+			}
+			catch (RuntimeException exc) {
+				logger.log(Level.WARNING, "Could not load the employee search index ... searches stay on the database", exc);
+			}
+		}, "employee-search-index-loader");
+		loader.setDaemon(true);
+		loader.start();
+	}
+	
+	private void load() {
+		
+		long begin = System.currentTimeMillis();
+		
+		// seek past the last id of the previous batch ... every batch costs the same, however far in we are
+		Pageable batchSize = PageRequest.of(0, LOAD_BATCH_SIZE);
+		List<Employee> batch;
+		int lastId = 0;
+		
+		do {
+			batch = employeeRepository.findByIdGreaterThanOrderByIdAsc(lastId, batchSize);
+			
+			lock.writeLock().lock();
+			try {
+				for (Employee theEmployee : batch) {
+					
+					// anything saved or deleted since the batch was read is newer than the batch
+					if (!entries.containsKey(theEmployee.getId()) 
+							&& !deletedWhileLoading.contains(theEmployee.getId())) {
+						put(theEmployee);
+					}
+				}
+			}
+			finally {
+				lock.writeLock().unlock();
+			}
+			
+			if (!batch.isEmpty()) {
+				lastId = batch.get(batch.size() - 1).getId();
+			}
+		}
+		while (batch.size() == LOAD_BATCH_SIZE);
+		
+		lock.writeLock().lock();
+		try {
+			deletedWhileLoading.clear();
+			ready = true;
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+		
+		logger.info("Indexed " + entries.size() + " employees in " 
+					+ (System.currentTimeMillis() - begin) + " ms");
+	}
+	
+	public void index(Employee theEmployee) {
+		
+		lock.writeLock().lock();
+		try {
+			put(theEmployee);
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	public void remove(int theId) {
+		
+		lock.writeLock().lock();
+		try {
+			Entry old = entries.remove(theId);
+			
+			if (old != null) {
+				removePostings(theId, grams(old.firstName), firstNameGrams);
+				removePostings(theId, grams(old.lastName), lastNameGrams);
+			}
+			
+			if (!ready) {
+				deletedWhileLoading.add(theId);
+			}
+		}
+		finally {
+			lock.writeLock().unlock();
+		}
+	}
+	
+	// whether search() can narrow these names down through the trigram index
+	public boolean canSearch(String theFirstName, String theLastName) {
+		return normalize(theFirstName).length() >= GRAM_LENGTH || normalize(theLastName).length() >= GRAM_LENGTH;
+	}
+	
+	// same matching as the old LIKE query: both names contain their search text, ignoring case
+	public Page<Employee> search(String theFirstName, String theLastName, Pageable pageable) {
+		
+		String firstQuery = normalize(theFirstName);
+		String lastQuery = normalize(theLastName);
+		
+		int limit = (int) Math.min(Integer.MAX_VALUE - 1, pageable.getOffset() + pageable.getPageSize());
+		
+		// worst match at the head so it can be dropped once we have enough better ones
+		PriorityQueue<Scored> best = new PriorityQueue<>(Math.min(limit + 1, 1024), Scored.RANKING.reversed());
+		
+		long total = 0;
+		
+		lock.readLock().lock();
+		try {
+			IntList firstCandidates = candidates(firstQuery, firstNameGrams);
+			IntList lastCandidates = candidates(lastQuery, lastNameGrams);
+			
+			IntList candidates = smaller(firstCandidates, lastCandidates);
+			
+			if (candidates == null) {
+				throw new IllegalArgumentException("Search text too short for the trigram index - \""
+													+ theFirstName + "\", \"" + theLastName + "\"");
+			}
+			
+			for (int i = 0; i < candidates.size(); i++) {
+				total += offer(entries.get(candidates.get(i)), firstQuery, lastQuery, best, limit);
+			}
+		}
+		finally {
+			lock.readLock().unlock();
+		}
+		
+		List<Scored> ranked = new ArrayList<>(best);
+		ranked.sort(Scored.RANKING);
+		
+		List<Employee> pageContent = new ArrayList<>(Math.min(pageable.getPageSize(), ranked.size()));
+		
+		for (int i = (int) Math.min(pageable.getOffset(), ranked.size()); i < ranked.size(); i++) {
+			pageContent.add(ranked.get(i).entry.employee);
+		}
+		
+		return new PageImpl<>(pageContent, pageable, total);
+	}
+	
+	private int offer(Entry entry, String firstQuery, String lastQuery, PriorityQueue<Scored> best, int limit) {
+		
+		int firstScore = score(entry.firstName, firstQuery);
+		int lastScore = score(entry.lastName, lastQuery);
+		
+		if (firstScore == 0 || lastScore == 0) {
+			return 0;
+		}
+		
+		best.add(new Scored(entry, firstScore + lastScore));
+		
+		if (best.size() > limit) {
+			best.poll();
+		}
+		
+		return 1;
+	}
+	
+	private static int score(String value, String query) {
+		
+		if (query.isEmpty()) {
+			return SCORE_CONTAINS;
+		}
+		if (value.equals(query)) {
+			return SCORE_EXACT;
+		}
+		if (value.startsWith(query)) {
+			return SCORE_PREFIX;
+		}
+		if (value.contains(query)) {
+			return SCORE_CONTAINS;
+		}
+		
+		return 0;
+	}
+	
+	// shortest posting list among the query's trigrams ... null when the index can't narrow it down
+	private static IntList candidates(String query, Map<String, IntList> index) {
+		
+		if (query.length() < GRAM_LENGTH) {
+			return null;
+		}
+		
+		IntList shortest = null;
+		
+		for (String gram : grams(query)) {
+			
+			IntList postings = index.get(gram);
+			
+			if (postings == null) {
+				return IntList.EMPTY;
+			}
+			
+			if (shortest == null || postings.size() < shortest.size()) {
+				shortest = postings;
+			}
+		}
+		
+		return shortest;
+	}
+	
+	private static IntList smaller(IntList first, IntList second) {
+		
+		if (first == null) {
+			return second;
+		}
+		if (second == null) {
+			return first;
+		}
+		
+		return first.size() <= second.size() ? first : second;
+	}
+	
+	private void put(Employee theEmployee) {
+		
+		// keep our own copy so later changes to the form-bound object don't leak into the index
+		Employee copy = new Employee(theEmployee.getId(), theEmployee.getFirstName(),
+										theEmployee.getLastName(), theEmployee.getEmail());
+		
+		Entry entry = new Entry(copy);
+		Entry old = entries.put(copy.getId(), entry);
+		
+		Set<String> oldFirst = old == null ? Collections.emptySet() : grams(old.firstName);
+		Set<String> oldLast = old == null ? Collections.emptySet() : grams(old.lastName);
+		
+		updatePostings(copy.getId(), oldFirst, grams(entry.firstName), firstNameGrams);
+		updatePostings(copy.getId(), oldLast, grams(entry.lastName), lastNameGrams);
+	}
+	
+	private static void updatePostings(int theId, Set<String> oldGrams, Set<String> newGrams,
+										Map<String, IntList> index) {
+		
+		for (String gram : oldGrams) {
+			if (!newGrams.contains(gram)) {
+				removePosting(theId, gram, index);
+			}
+		}
+		
+		for (String gram : newGrams) {
+			if (!oldGrams.contains(gram)) {
+				index.computeIfAbsent(gram, key -> new IntList()).add(theId);
+			}
+		}
+	}
+	
+	private static void removePostings(int theId, Set<String> grams, Map<String, IntList> index) {
+		
+		for (String gram : grams) {
+			removePosting(theId, gram, index);
+		}
+	}
+	
+	private static void removePosting(int theId, String gram, Map<String, IntList> index) {
+		
+		IntList postings = index.get(gram);
+		
+		if (postings != null) {
+			postings.remove(theId);
+			
+			if (postings.size() == 0) {
+				index.remove(gram);
+			}
+		}
+	}
+	
+	private static Set<String> grams(String value) {
+		
+		Set<String> grams = new HashSet<>();
+		
+		for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+			grams.add(value.substring(i, i + GRAM_LENGTH));
+		}
+		
+		return grams;
+	}
+	
+	private static String normalize(String value) {
+		return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+	}
+	
+	private static class Entry {
+		
+		private final Employee employee;
+		private final String firstName;
+		private final String lastName;
+		
+		Entry(Employee employee) {
+			this.employee = employee;
+			this.firstName = normalize(employee.getFirstName());
+			this.lastName = normalize(employee.getLastName());
+		}
+	}
+	
+	private static class Scored {
+		
+		// best score first, then the same last name/first name order as the list page
+		private static final Comparator<Scored> RANKING = 
+				Comparator.comparingInt((Scored scored) -> -scored.score)
+							.thenComparing(scored -> scored.entry.lastName)
+							.thenComparing(scored -> scored.entry.firstName)
+							.thenComparingInt(scored -> scored.entry.employee.getId());
+		
+		private final Entry entry;
+		private final int score;
+		
+		Scored(Entry entry, int score) {
+			this.entry = entry;
+			this.score = score;
+		}
+	}
+	
+	// growable int array ... a posting list of employee ids without boxing
+	private static class IntList {
+		
+		private static final IntList EMPTY = new IntList();
+		
+		private int[] values = new int[4];
+		private int size;
+		
+		void add(int value) {
+			
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			
+			values[size++] = value;
+		}
+		
+		// order doesn't matter, so the last value fills the hole
+		void remove(int value) {
+			
+			for (int i = 0; i < size; i++) {
+				if (values[i] == value) {
+					values[i] = values[--size];
+					return;
+				}
+			}
+		}
+		
+		int get(int index) {
+			return values[index];
+		}
+		
+		int size() {
+			return size;
+		}
+	}
+	
+}
@@ -2,18 +2,28 @@ package com.luv2code.springboot.thymeleafdemo.service;
 
 import java.util.List;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
 import com.luv2code.springboot.thymeleafdemo.entity.Employee;
 
 public interface EmployeeService {
 
 	public List<Employee> findAll();
 	
+	public Slice<Employee> findAll(Pageable pageable);
+	
+	public Iterable<Employee> findAllInChunks(String sortField, Sort.Direction direction,
+											int chunkSize, Runnable beforeEachChunk);
+	
 	public Employee findById(int theId);
 	
 	public void save(Employee theEmployee);
 	
 	public void deleteById(int theId);
 
-	public List<Employee> searchBy(String theFirstName, String theLastName);
+	public Page<Employee> searchBy(String theFirstName, String theLastName, Pageable pageable);
 	
 }
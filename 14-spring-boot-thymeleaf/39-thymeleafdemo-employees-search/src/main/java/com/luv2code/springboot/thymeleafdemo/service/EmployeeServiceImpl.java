@@ -4,6 +4,10 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.luv2code.springboot.thymeleafdemo.dao.EmployeeRepository;
@@ -14,9 +18,13 @@ public class EmployeeServiceImpl implements EmployeeService {
 
 	private EmployeeRepository employeeRepository;
 	
+	private EmployeeSearchIndex employeeSearchIndex;
+	
 	@Autowired
-	public EmployeeServiceImpl(EmployeeRepository theEmployeeRepository) {
+	public EmployeeServiceImpl(EmployeeRepository theEmployeeRepository,
+								EmployeeSearchIndex theEmployeeSearchIndex) {
 		employeeRepository = theEmployeeRepository;
+		employeeSearchIndex = theEmployeeSearchIndex;
 	}
 	
 	@Override
@@ -24,6 +32,22 @@ public class EmployeeServiceImpl implements EmployeeService {
 		return employeeRepository.findAllByOrderByLastNameAsc();
 	}
 
+	@Override
+	public Slice<Employee> findAll(Pageable pageable) {
+		return employeeRepository.findAllBy(pageable);
+	}
+
+	@Override
+	public Iterable<Employee> findAllInChunks(String sortField, Sort.Direction direction,
+											int chunkSize, Runnable beforeEachChunk) {
+		
+		// nothing is read here ... each chunk is queried when the caller iterates up to it
+		return new ChunkedIterable<>(chunkSize,
+					(theLastEmployee, theChunkSize) -> 
+						employeeRepository.findChunkAfter(theLastEmployee, sortField, direction, theChunkSize),
+					beforeEachChunk);
+	}
+
 	@Override
 	public Employee findById(int theId) {
 		Optional<Employee> result = employeeRepository.findById(theId);
@@ -43,20 +67,31 @@ public class EmployeeServiceImpl implements EmployeeService {
 
 	@Override
 	public void save(Employee theEmployee) {
-		employeeRepository.save(theEmployee);
+		Employee dbEmployee = employeeRepository.save(theEmployee);
+		
+		// keep the search index in step with the database
+		employeeSearchIndex.index(dbEmployee);
 	}
 
 	@Override
 	public void deleteById(int theId) {
 		employeeRepository.deleteById(theId);
+		
+		employeeSearchIndex.remove(theId);
 	}
 
 	@Override
-	public List<Employee> searchBy(String theFirstName, String theLastName) {
+	public Page<Employee> searchBy(String theFirstName, String theLastName, Pageable pageable) {
+		
+		// use the in-memory index once it's loaded ... the database until then,
+		// and for search text too short for the index to narrow down
+		if (employeeSearchIndex.isReady() && employeeSearchIndex.canSearch(theFirstName, theLastName)) {
+			return employeeSearchIndex.search(theFirstName, theLastName, pageable);
+		}
 		
 		return employeeRepository.
 				findByFirstNameContainsAndLastNameContainsAllIgnoreCase(
-						theFirstName, theLastName);	
+						theFirstName, theLastName, pageable);	
 	}
 
 }
@@ -0,0 +1,131 @@
+package com.luv2code.springsecurity.demo.benchmark;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanWrapperImpl;
+
+import com.luv2code.springsecurity.demo.user.CrmUser;
+import com.luv2code.springsecurity.demo.validation.EmailValidator;
+import com.luv2code.springsecurity.demo.validation.FieldMatch;
+import com.luv2code.springsecurity.demo.validation.FieldMatchValidator;
+
+// cost of validating one registration form submit ... the full Bean Validation pass over CrmUser
+// plus each custom validator on its own, next to the old implementations for comparison
+//
+// runs with 4 threads since the validators are shared singletons across request threads
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(4)
+@Fork(1)
+public class ValidationBenchmark {
+
+	// same regex the old EmailValidator compiled on every call
+	private static final String EMAIL_REGEX = "^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@"
+			+ "[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
+	
+	private ValidatorFactory validatorFactory;
+	
+	private Validator validator;
+	
+	private EmailValidator emailValidator;
+	
+	private FieldMatchValidator fieldMatchValidator;
+	
+	private CrmUser validUser;
+	
+	private CrmUser invalidUser;
+	
+	@Setup(Level.Trial)
+	public void setUp() {
+		
+		validatorFactory = Validation.buildDefaultValidatorFactory();
+		validator = validatorFactory.getValidator();
+		
+		emailValidator = new EmailValidator();
+		
+		fieldMatchValidator = new FieldMatchValidator();
+		fieldMatchValidator.initialize(CrmUser.class.getAnnotation(FieldMatch.List.class).value()[0]);
+		
+		validUser = newUser("john.doe@luv2code.com", "test123");
+		
+		// mismatched passwords and a bad email ... exercises the violation paths too
+		invalidUser = newUser("john.doe@luv2code", "other123");
+	}
+	
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		validatorFactory.close();
+	}
+	
+	@Benchmark
+	public Set<ConstraintViolation<CrmUser>> validateValidForm() {
+		return validator.validate(validUser);
+	}
+	
+	@Benchmark
+	public Set<ConstraintViolation<CrmUser>> validateInvalidForm() {
+		return validator.validate(invalidUser);
+	}
+	
+	// the custom validators on their own ... a valid value never touches the context, so null is fine here
+	
+	@Benchmark
+	public boolean email() {
+		return emailValidator.isValid(validUser.getEmail(), null);
+	}
+	
+	@Benchmark
+	public boolean emailCompilePerCall() {
+		return Pattern.compile(EMAIL_REGEX).matcher(validUser.getEmail()).matches();
+	}
+	
+	@Benchmark
+	public boolean fieldMatch() {
+		return fieldMatchValidator.isValid(validUser, null);
+	}
+	
+	@Benchmark
+	public boolean fieldMatchBeanWrapper() {
+		Object first = new BeanWrapperImpl(validUser).getPropertyValue("password");
+		Object second = new BeanWrapperImpl(validUser).getPropertyValue("matchingPassword");
+		
+		return first == null && second == null || first != null && first.equals(second);
+	}
+	
+	private static CrmUser newUser(String theEmail, String theMatchingPassword) {
+		
+		CrmUser user = new CrmUser();
+		user.setUserName("john");
+		user.setPassword("test123");
+		user.setMatchingPassword(theMatchingPassword);
+		user.setFirstName("John");
+		user.setLastName("Doe");
+		user.setEmail(theEmail);
+		
+		return user;
+	}
+	
+}
@@ -2,8 +2,10 @@ package com.luv2code.springsecurity.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cache.annotation.EnableCaching;
 
 @SpringBootApplication
+@EnableCaching
 public class SpringSecurityCustomUserRegistrationApplication {
 
 	public static void main(String[] args) {
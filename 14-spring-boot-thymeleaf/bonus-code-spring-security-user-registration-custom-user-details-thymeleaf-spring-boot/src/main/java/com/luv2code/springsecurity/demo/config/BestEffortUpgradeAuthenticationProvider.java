@@ -0,0 +1,37 @@
+package com.luv2code.springsecurity.demo.config;
+
+import java.util.logging.Logger;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.luv2code.springsecurity.demo.service.PasswordHashingBusyException;
+
+// re-hashing an old password at the current bcrypt cost happens after the password has been checked ...
+// if the hashing pool is too busy for that, the login still succeeds and the upgrade waits for the next one
+public class BestEffortUpgradeAuthenticationProvider extends DaoAuthenticationProvider {
+
+	private Logger logger = Logger.getLogger(getClass().getName());
+	
+	@Override
+	protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+		
+		try {
+			return super.createSuccessAuthentication(principal, authentication, user);
+		}
+		catch (PasswordHashingBusyException exc) {
+			
+			logger.warning("Password upgrade skipped for " + user.getUsername() + ": " + exc.getMessage());
+			
+			// same token the provider builds, just without the new hash
+			UsernamePasswordAuthenticationToken result = new UsernamePasswordAuthenticationToken(
+					principal, authentication.getCredentials(), user.getAuthorities());
+			result.setDetails(authentication.getDetails());
+			
+			return result;
+		}
+	}
+	
+}
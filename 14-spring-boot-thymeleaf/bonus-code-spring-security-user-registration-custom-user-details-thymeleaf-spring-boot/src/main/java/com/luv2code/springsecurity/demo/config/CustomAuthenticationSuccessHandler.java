@@ -12,8 +12,8 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
 import org.springframework.stereotype.Component;
 
-import com.luv2code.springsecurity.demo.entity.User;
 import com.luv2code.springsecurity.demo.service.UserService;
+import com.luv2code.springsecurity.demo.user.UserAccount;
 
 @Component
 public class CustomAuthenticationSuccessHandler implements AuthenticationSuccessHandler {
@@ -31,7 +31,8 @@ public class CustomAuthenticationSuccessHandler implements AuthenticationSuccess
 		
 		System.out.println("userName=" + userName);
 
-		User theUser = userService.findByUserName(userName);
+		// the cached read-only copy ... every session for this user may hold the same instance
+		UserAccount theUser = userService.findAccountByUserName(userName);
 		
 		// now place in the session
 		HttpSession session = request.getSession();
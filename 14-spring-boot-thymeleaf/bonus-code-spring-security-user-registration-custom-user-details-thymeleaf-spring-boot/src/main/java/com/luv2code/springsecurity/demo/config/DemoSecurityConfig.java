@@ -8,8 +8,8 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
+import com.luv2code.springsecurity.demo.service.PasswordHashingService;
 import com.luv2code.springsecurity.demo.service.UserService;
 
 @Configuration
@@ -20,6 +20,9 @@ public class DemoSecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private UserService userService;
 	
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+    
     @Autowired
     private CustomAuthenticationSuccessHandler customAuthenticationSuccessHandler;
     
@@ -49,18 +52,13 @@ public class DemoSecurityConfig extends WebSecurityConfigurerAdapter {
 	}
 	
 	//beans
-	//bcrypt bean definition
-	@Bean
-	public BCryptPasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
-	}
-
 	//authenticationProvider bean definition
 	@Bean
 	public DaoAuthenticationProvider authenticationProvider() {
-		DaoAuthenticationProvider auth = new DaoAuthenticationProvider();
+		DaoAuthenticationProvider auth = new BestEffortUpgradeAuthenticationProvider();
 		auth.setUserDetailsService(userService); //set the custom user details service
-		auth.setPasswordEncoder(passwordEncoder()); //set the password encoder - bcrypt
+		auth.setPasswordEncoder(passwordHashingService); //set the password encoder - bcrypt on a dedicated thread pool
+		auth.setUserDetailsPasswordService(userService); //re-hash old passwords at the current bcrypt cost on login
 		return auth;
 	}
 	  
@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 
 import com.luv2code.springsecurity.demo.user.CrmUser;
 import com.luv2code.springsecurity.demo.entity.User;
+import com.luv2code.springsecurity.demo.service.PasswordHashingBusyException;
 import com.luv2code.springsecurity.demo.service.UserService;
 
 @Controller
@@ -69,8 +70,17 @@ public class RegistrationController {
         	return "registration-form";
         }
         
-        // create user account        						
-        userService.save(theCrmUser);
+        // create user account ... the password hashing pool may be full during a registration burst
+        try {
+        	userService.save(theCrmUser);
+        }
+        catch (PasswordHashingBusyException exc) {
+        	theModel.addAttribute("crmUser", new CrmUser());
+			theModel.addAttribute("registrationError", "Too many registrations right now. Please try again.");
+
+			logger.warning(exc.getMessage());
+        	return "registration-form";
+        }
         
         logger.info("Successfully created user: " + userName);
         
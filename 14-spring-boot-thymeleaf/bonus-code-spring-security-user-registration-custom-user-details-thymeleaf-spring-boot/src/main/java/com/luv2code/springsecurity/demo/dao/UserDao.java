@@ -1,11 +1,16 @@
 package com.luv2code.springsecurity.demo.dao;
 
 import com.luv2code.springsecurity.demo.entity.User;
+import com.luv2code.springsecurity.demo.user.UserAccount;
 
 public interface UserDao {
 
     public User findByUserName(String userName);
     
+    public UserAccount findAccountByUserName(String userName);
+    
     public void save(User user);
     
+    public void updatePassword(String userName, String encodedPassword);
+    
 }
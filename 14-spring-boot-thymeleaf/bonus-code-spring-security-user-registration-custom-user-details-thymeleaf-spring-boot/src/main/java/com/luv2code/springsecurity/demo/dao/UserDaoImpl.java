@@ -1,14 +1,19 @@
 package com.luv2code.springsecurity.demo.dao;
 
+import java.util.stream.Collectors;
+
 import javax.persistence.EntityManager;
 
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.query.Query;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Repository;
 
 import com.luv2code.springsecurity.demo.entity.User;
+import com.luv2code.springsecurity.demo.user.UserAccount;
 
 @Repository
 public class UserDaoImpl implements UserDao {
@@ -21,8 +26,9 @@ public class UserDaoImpl implements UserDao {
 		// get the current hibernate session
 		Session currentSession = entityManager.unwrap(Session.class);
 
-		// now retrieve/read from database using username
-		Query<User> theQuery = currentSession.createQuery("from User where userName=:uName", User.class);
+		// now retrieve/read from database using username ... fetch the roles in the same query
+		Query<User> theQuery = currentSession.createQuery(
+				"select distinct u from User u left join fetch u.roles where u.userName=:uName", User.class);
 		theQuery.setParameter("uName", theUserName);
 		User theUser = null;
 		try {
@@ -34,7 +40,26 @@ public class UserDaoImpl implements UserDao {
 		return theUser;
 	}
 
+	// cached so a login and the success handler right after it share one lookup
+	// unknown users are not cached ... registration checks always see new names
+	// the cache holds a read-only copy, never the entity ... that one is mutable and tied to its session
+	@Override
+	@Cacheable(cacheNames = "users", unless = "#result == null")
+	public UserAccount findAccountByUserName(String theUserName) {
+		
+		User theUser = findByUserName(theUserName);
+		
+		if (theUser == null) {
+			return null;
+		}
+		
+		return new UserAccount(theUser.getUserName(), theUser.getPassword(), theUser.getFirstName(),
+				theUser.getLastName(), theUser.getEmail(),
+				theUser.getRoles().stream().map(role -> role.getName()).collect(Collectors.toList()));
+	}
+
 	@Override
+	@CacheEvict(cacheNames = "users", key = "#theUser.userName")
 	public void save(User theUser) {
 		// get current hibernate session
 		Session currentSession = entityManager.unwrap(Session.class);
@@ -43,4 +68,17 @@ public class UserDaoImpl implements UserDao {
 		currentSession.saveOrUpdate(theUser);
 	}
 
+	@Override
+	@CacheEvict(cacheNames = "users", key = "#theUserName")
+	public void updatePassword(String theUserName, String theEncodedPassword) {
+		// get current hibernate session
+		Session currentSession = entityManager.unwrap(Session.class);
+
+		// update just the password column
+		Query theQuery = currentSession.createQuery("update User set password=:password where userName=:uName");
+		theQuery.setParameter("password", theEncodedPassword);
+		theQuery.setParameter("uName", theUserName);
+		theQuery.executeUpdate();
+	}
+
 }
@@ -0,0 +1,16 @@
+package com.luv2code.springsecurity.demo.service;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// an AuthenticationException so a rejected login just fails instead of returning a 500
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+	public PasswordHashingBusyException(String message) {
+		super(message);
+	}
+
+	public PasswordHashingBusyException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
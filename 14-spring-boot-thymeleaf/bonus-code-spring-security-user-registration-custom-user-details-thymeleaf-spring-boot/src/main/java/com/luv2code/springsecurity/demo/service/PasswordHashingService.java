@@ -0,0 +1,10 @@
+package com.luv2code.springsecurity.demo.service;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public interface PasswordHashingService extends PasswordEncoder {
+
+	// bcrypt cost factor picked at startup
+	public int getStrength();
+	
+}
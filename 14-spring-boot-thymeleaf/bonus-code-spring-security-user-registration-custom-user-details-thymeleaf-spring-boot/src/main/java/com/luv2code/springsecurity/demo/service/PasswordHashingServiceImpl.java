@@ -0,0 +1,175 @@
+package com.luv2code.springsecurity.demo.service;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PasswordHashingServiceImpl implements PasswordHashingService {
+
+	private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+	
+	private Logger logger = Logger.getLogger(getClass().getName());
+	
+	// how long one hash should take ... the cost factor is tuned to this at startup
+	@Value("${security.password.bcrypt.target-millis:250}")
+	private long targetMillis;
+	
+	@Value("${security.password.bcrypt.min-strength:10}")
+	private int minStrength;
+	
+	@Value("${security.password.bcrypt.max-strength:14}")
+	private int maxStrength;
+	
+	// 0 means one thread per cpu
+	@Value("${security.password.hashing.threads:0}")
+	private int threads;
+	
+	// hashes allowed to wait for a thread ... anything beyond that is rejected right away
+	@Value("${security.password.hashing.queue-capacity:100}")
+	private int queueCapacity;
+	
+	@Value("${security.password.hashing.timeout-millis:10000}")
+	private long timeoutMillis;
+	
+	private final SecureRandom random = new SecureRandom();
+	
+	private ThreadPoolExecutor executor;
+	
+	private volatile int strength;
+	
+	@PostConstruct
+	public void init() {
+		
+		int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+		
+		AtomicInteger threadCount = new AtomicInteger();
+		
+		executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+								new ArrayBlockingQueue<>(queueCapacity),
+								task -> {
+									Thread thread = new Thread(task, "password-hashing-" + threadCount.incrementAndGet());
+									thread.setDaemon(true);
+									return thread;
+								},
+								new ThreadPoolExecutor.AbortPolicy());
+		
+		strength = calibrate();
+	}
+	
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	@Override
+	public int getStrength() {
+		return strength;
+	}
+	
+	@Override
+	public String encode(CharSequence rawPassword) {
+		
+		String salt = BCrypt.gensalt(strength, random);
+		
+		return submit(() -> BCrypt.hashpw(rawPassword.toString(), salt));
+	}
+
+	@Override
+	public boolean matches(CharSequence rawPassword, String encodedPassword) {
+		
+		if (encodedPassword == null || !BCRYPT_PATTERN.matcher(encodedPassword).matches()) {
+			logger.warning("Encoded password does not look like BCrypt");
+			return false;
+		}
+		
+		return submit(() -> BCrypt.checkpw(rawPassword.toString(), encodedPassword));
+	}
+	
+	// true for hashes made with a lower cost than the current one ...
+	// Spring Security then re-hashes the password after a successful login
+	@Override
+	public boolean upgradeEncoding(String encodedPassword) {
+		
+		if (encodedPassword == null) {
+			return false;
+		}
+		
+		Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+		
+		return matcher.matches() && Integer.parseInt(matcher.group(2)) < strength;
+	}
+	
+	private <T> T submit(Callable<T> task) {
+		
+		Future<T> future;
+		
+		try {
+			future = executor.submit(task);
+		}
+		catch (RejectedExecutionException exc) {
+			throw new PasswordHashingBusyException("Too many password hashes in progress", exc);
+		}
+		
+		try {
+			return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException exc) {
+			future.cancel(true);
+			throw new PasswordHashingBusyException("Password hashing timed out", exc);
+		}
+		catch (InterruptedException exc) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new PasswordHashingBusyException("Interrupted while hashing password", exc);
+		}
+		catch (ExecutionException exc) {
+			// still an AuthenticationException ... a login fails normally instead of returning a 500
+			throw new AuthenticationServiceException("Password hashing failed", exc.getCause());
+		}
+	}
+	
+	// time a hash at the minimum strength, then add one to the cost for every doubling that still fits the target
+	private int calibrate() {
+		
+		String salt = BCrypt.gensalt(minStrength, random);
+		
+		// warm up the JIT before measuring
+		BCrypt.hashpw("calibration", salt);
+		BCrypt.hashpw("calibration", salt);
+		
+		long begin = System.nanoTime();
+		BCrypt.hashpw("calibration", salt);
+		long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin));
+		
+		int chosen = minStrength;
+		
+		while (chosen < maxStrength && elapsedMillis * 2 <= targetMillis) {
+			chosen++;
+			elapsedMillis *= 2;
+		}
+		
+		logger.info("BCrypt strength " + chosen + " (~" + elapsedMillis + " ms per hash, target " + targetMillis + " ms)");
+		
+		return chosen;
+	}
+	
+}
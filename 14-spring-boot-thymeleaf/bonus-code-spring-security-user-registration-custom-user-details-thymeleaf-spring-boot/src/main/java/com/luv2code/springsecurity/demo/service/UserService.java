@@ -2,11 +2,15 @@ package com.luv2code.springsecurity.demo.service;
 
 import com.luv2code.springsecurity.demo.entity.User;
 import com.luv2code.springsecurity.demo.user.CrmUser;
+import com.luv2code.springsecurity.demo.user.UserAccount;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 
-public interface UserService extends UserDetailsService {
+public interface UserService extends UserDetailsService, UserDetailsPasswordService {
 
 	public User findByUserName(String userName);
 
+	public UserAccount findAccountByUserName(String userName);
+
 	public void save(CrmUser crmUser);
 }
@@ -2,17 +2,17 @@ package com.luv2code.springsecurity.demo.service;
 
 import com.luv2code.springsecurity.demo.dao.RoleDao;
 import com.luv2code.springsecurity.demo.dao.UserDao;
-import com.luv2code.springsecurity.demo.entity.Role;
 import com.luv2code.springsecurity.demo.entity.User;
 import com.luv2code.springsecurity.demo.user.CrmUser;
+import com.luv2code.springsecurity.demo.user.UserAccount;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -29,7 +29,10 @@ public class UserServiceImpl implements UserService {
 	private RoleDao roleDao;
 	
 	@Autowired
-	private BCryptPasswordEncoder passwordEncoder;
+	private PasswordHashingService passwordEncoder;
+	
+	@Autowired
+	private TransactionTemplate transactionTemplate;
 
 	@Override
 	@Transactional
@@ -40,6 +43,13 @@ public class UserServiceImpl implements UserService {
 
 	@Override
 	@Transactional
+	public UserAccount findAccountByUserName(String userName) {
+		return userDao.findAccountByUserName(userName);
+	}
+
+	// not @Transactional ... hashing can wait for the hashing pool, and it shouldn't hold
+	// a database connection while it does, so only the inserts run in a transaction
+	@Override
 	public void save(CrmUser crmUser) {
 		User user = new User();
 		 // assign user details to the user object
@@ -49,25 +59,39 @@ public class UserServiceImpl implements UserService {
 		user.setLastName(crmUser.getLastName());
 		user.setEmail(crmUser.getEmail());
 
-		// give user default role of "employee"
-		user.setRoles(Arrays.asList(roleDao.findRoleByName("ROLE_EMPLOYEE")));
+		transactionTemplate.execute(status -> {
+			
+			// give user default role of "employee"
+			user.setRoles(Arrays.asList(roleDao.findRoleByName("ROLE_EMPLOYEE")));
 
-		 // save user in the database
-		userDao.save(user);
+			 // save user in the database
+			userDao.save(user);
+			
+			return null;
+		});
 	}
 
 	@Override
 	@Transactional
 	public UserDetails loadUserByUsername(String userName) throws UsernameNotFoundException {
-		User user = userDao.findByUserName(userName);
+		UserAccount user = userDao.findAccountByUserName(userName);
 		if (user == null) {
 			throw new UsernameNotFoundException("Invalid username or password.");
 		}
+		// a new UserDetails every time ... Spring Security erases its password after the login
 		return new org.springframework.security.core.userdetails.User(user.getUserName(), user.getPassword(),
 				mapRolesToAuthorities(user.getRoles()));
 	}
 
-	private Collection<? extends GrantedAuthority> mapRolesToAuthorities(Collection<Role> roles) {
-		return roles.stream().map(role -> new SimpleGrantedAuthority(role.getName())).collect(Collectors.toList());
+	// called by Spring Security after a successful login when the stored hash uses an older bcrypt cost
+	@Override
+	@Transactional
+	public UserDetails updatePassword(UserDetails user, String newPassword) {
+		userDao.updatePassword(user.getUsername(), newPassword);
+		return org.springframework.security.core.userdetails.User.withUserDetails(user).password(newPassword).build();
+	}
+
+	private Collection<? extends GrantedAuthority> mapRolesToAuthorities(Collection<String> roles) {
+		return roles.stream().map(role -> new SimpleGrantedAuthority(role)).collect(Collectors.toList());
 	}
 }
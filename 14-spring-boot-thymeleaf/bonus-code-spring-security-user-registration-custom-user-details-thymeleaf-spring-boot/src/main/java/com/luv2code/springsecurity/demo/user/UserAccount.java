@@ -0,0 +1,61 @@
+package com.luv2code.springsecurity.demo.user;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// read-only copy of a user and its role names ... what the "users" cache holds and what goes in the session,
+// so every login and session sharing a cached entry can't change it for the others
+public final class UserAccount implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String userName;
+	private final String password;
+	private final String firstName;
+	private final String lastName;
+	private final String email;
+	private final List<String> roles;
+
+	public UserAccount(String userName, String password, String firstName, String lastName, String email,
+			List<String> roles) {
+		this.userName = userName;
+		this.password = password;
+		this.firstName = firstName;
+		this.lastName = lastName;
+		this.email = email;
+		this.roles = Collections.unmodifiableList(new ArrayList<>(roles));
+	}
+
+	public String getUserName() {
+		return userName;
+	}
+
+	public String getPassword() {
+		return password;
+	}
+
+	public String getFirstName() {
+		return firstName;
+	}
+
+	public String getLastName() {
+		return lastName;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	public List<String> getRoles() {
+		return roles;
+	}
+
+	@Override
+	public String toString() {
+		return "UserAccount{" + "userName='" + userName + '\'' + ", firstName='" + firstName + '\'' + ", lastName='"
+				+ lastName + '\'' + ", email='" + email + '\'' + ", roles=" + roles + '}';
+	}
+
+}
@@ -1,6 +1,5 @@
 package com.luv2code.springsecurity.demo.validation;
 
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.validation.ConstraintValidator;
@@ -8,19 +7,17 @@ import javax.validation.ConstraintValidatorContext;
 
 public class EmailValidator implements ConstraintValidator<ValidEmail, String> {
 
-	private Pattern pattern;
-	private Matcher matcher;
-	private static final String EMAIL_PATTERN = "^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@"
-			+ "[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
+	// compiled once and shared ... Pattern is immutable and thread-safe,
+	// only the Matcher is per call, so the validator itself holds no state
+	private static final Pattern EMAIL_PATTERN = Pattern.compile("^[_A-Za-z0-9-\\+]+(\\.[_A-Za-z0-9-]+)*@"
+			+ "[A-Za-z0-9-]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
 
 	@Override
 	public boolean isValid(final String email, final ConstraintValidatorContext context) {
-		pattern = Pattern.compile(EMAIL_PATTERN);
 		if (email == null) {
 			return false;
 		}
-		matcher = pattern.matcher(email);
-		return matcher.matches();
+		return EMAIL_PATTERN.matcher(email).matches();
 	}
 
-}
\ No newline at end of file
+}
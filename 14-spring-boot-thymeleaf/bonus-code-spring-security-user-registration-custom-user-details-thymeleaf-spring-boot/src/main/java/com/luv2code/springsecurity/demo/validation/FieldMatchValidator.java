@@ -1,46 +1,52 @@
 package com.luv2code.springsecurity.demo.validation;
 
+import java.util.function.Function;
+
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
-import org.springframework.beans.BeanWrapperImpl;
-
+// thread-safe ... only holds the annotation values, the getters come from the shared PropertyAccessors cache
 public class FieldMatchValidator implements ConstraintValidator<FieldMatch, Object> {
 	
 	private String firstFieldName;
-    private String secondFieldName;
-    private String message;
-
-    @Override
-    public void initialize(final FieldMatch constraintAnnotation) {
-	    	firstFieldName = constraintAnnotation.first();
-	    	secondFieldName = constraintAnnotation.second();
-        message = constraintAnnotation.message();
-    }
-
-    @Override
-    public boolean isValid(final Object value, final ConstraintValidatorContext context) {
-        boolean valid = true;
-        try
-        {
-            final Object firstObj = new BeanWrapperImpl(value).getPropertyValue(firstFieldName);
-            final Object secondObj = new BeanWrapperImpl(value).getPropertyValue(secondFieldName);
-
-            valid =  firstObj == null && secondObj == null || firstObj != null && firstObj.equals(secondObj);
-        }
-        catch (final Exception ignore)
-        {
-            // we can ignore
-        }
-
-        if (!valid){
-            context.buildConstraintViolationWithTemplate(message)
-                    .addPropertyNode(firstFieldName)
-                    .addConstraintViolation()
-                    .disableDefaultConstraintViolation();
-        }
-
-        return valid;
-    }
+	private String secondFieldName;
+	private String message;
+
+	@Override
+	public void initialize(final FieldMatch constraintAnnotation) {
+		firstFieldName = constraintAnnotation.first();
+		secondFieldName = constraintAnnotation.second();
+		message = constraintAnnotation.message();
+	}
+
+	@Override
+	public boolean isValid(final Object value, final ConstraintValidatorContext context) {
+		boolean valid = true;
+		try
+		{
+			Class<?> type = value.getClass();
+			
+			Function<Object, Object> first = PropertyAccessors.forProperty(type, firstFieldName);
+			Function<Object, Object> second = PropertyAccessors.forProperty(type, secondFieldName);
+			
+			final Object firstObj = first.apply(value);
+			final Object secondObj = second.apply(value);
+
+			valid =  firstObj == null && secondObj == null || firstObj != null && firstObj.equals(secondObj);
+		}
+		catch (final Exception ignore)
+		{
+			// we can ignore
+		}
+
+		if (!valid){
+			context.buildConstraintViolationWithTemplate(message)
+					.addPropertyNode(firstFieldName)
+					.addConstraintViolation()
+					.disableDefaultConstraintViolation();
+		}
+
+		return valid;
+	}
 	
-}
\ No newline at end of file
+}
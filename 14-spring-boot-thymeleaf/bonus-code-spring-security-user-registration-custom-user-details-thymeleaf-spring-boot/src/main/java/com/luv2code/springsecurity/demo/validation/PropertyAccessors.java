@@ -0,0 +1,95 @@
+package com.luv2code.springsecurity.demo.validation;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanUtils;
+
+// resolves a bean property getter once per (class, property) and hands back a plain Function
+//
+// the first lookup goes through the JavaBeans introspector ... after that a form submit is
+// just a map lookup and a direct call to the getter, no BeanWrapperImpl per check
+final class PropertyAccessors {
+
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	// ClassValue ties the cache to the class ... so it goes away with the class loader
+	// (devtools restarts, redeploys) instead of pinning it in a static map
+	private static final ClassValue<Map<String, Function<Object, Object>>> ACCESSORS =
+			new ClassValue<Map<String, Function<Object, Object>>>() {
+				@Override
+				protected Map<String, Function<Object, Object>> computeValue(Class<?> type) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+
+	private PropertyAccessors() {
+	}
+
+	static Function<Object, Object> forProperty(Class<?> theType, String thePropertyName) {
+		return ACCESSORS.get(theType).computeIfAbsent(thePropertyName, name -> createAccessor(theType, name));
+	}
+
+	private static Function<Object, Object> createAccessor(Class<?> theType, String thePropertyName) {
+
+		PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(theType, thePropertyName);
+		
+		if (descriptor == null || descriptor.getReadMethod() == null) {
+			throw new IllegalArgumentException("No readable property '" + thePropertyName + "' on " + theType.getName());
+		}
+
+		Method getter = descriptor.getReadMethod();
+		
+		MethodHandle handle;
+		try {
+			getter.setAccessible(true);
+			handle = MethodHandles.lookup().unreflect(getter);
+		}
+		catch (ReflectiveOperationException | RuntimeException exc) {
+			throw new IllegalArgumentException("Cannot access property '" + thePropertyName + "' on " + theType.getName(), exc);
+		}
+
+		// best case ... spin a lambda class that calls the getter directly, the JIT inlines it like hand-written code
+		try {
+			return metafactoryAccessor(handle);
+		}
+		catch (Throwable exc) {
+			// non-public class or one our class loader can't see ... the method handle still works, just a bit slower
+			MethodHandle generic = handle.asType(GETTER_TYPE);
+			
+			return bean -> {
+				try {
+					return generic.invokeExact(bean);
+				}
+				catch (RuntimeException | Error e) {
+					throw e;
+				}
+				catch (Throwable e) {
+					throw new IllegalStateException(e);
+				}
+			};
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Function<Object, Object> metafactoryAccessor(MethodHandle theGetter) throws Throwable {
+
+		CallSite site = LambdaMetafactory.metafactory(MethodHandles.lookup(),
+											"apply",
+											MethodType.methodType(Function.class),
+											GETTER_TYPE,
+											theGetter,
+											theGetter.type().wrap());
+		
+		return (Function<Object, Object>) site.getTarget().invokeExact();
+	}
+
+}